@@ -0,0 +1,312 @@
+package TemplarHunt;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every image and sound effect of the game packed into one file, which is
+ * memory-mapped once when the first asset is asked for. The file starts
+ * with an index of the name, offset, and length of each asset, so finding
+ * an asset is a single map lookup and reading it never touches the disk
+ * through a path; images and sounds are decoded straight out of the
+ * mapped region. The bundle also holds every variant of ScaledAssets,
+ * made from the images as the bundle is built, so the game never scales
+ * an image itself when it runs from a bundle.
+ *
+ * When there is no bundle, as while developing, or an asset is not in it,
+ * the asset is read from the loose file of the same name instead, relative
+ * to the working directory.
+ *
+ * Build the bundle with: java TemplarHunt.AssetBundle
+ *
+ * Bundle layout, all numbers big-endian:
+ *    int magic, int version, int number of assets,
+ *    then for each asset: UTF name, long offset, int length,
+ *    then the contents of the assets at their offsets
+ *
+ * @author Devon Lee
+ */
+public class AssetBundle
+{
+   public static final String BUNDLE_FILE = "Assets.bundle";
+
+   // Every asset packed into the bundle, by its loose file name
+   public static final String[] ASSETS = new String[]
+                                {"Assassin.png", "SuperAssassin.jpg",
+                                 "Dirt.jpg", "Hay.png", "Cobble.jpg",
+                                 "Sound Effects/HitConfirm.wav",
+                                 "Sound Effects/Buzzer.wav",
+                                 "Sound Effects/WinRound.wav",
+                                 "Sound Effects/LoseRound.wav"};
+
+   private static final int MAGIC = 0x54484142; // "THAB"
+   private static final int VERSION = 1;
+
+   private static boolean opened = false;
+   private static MappedByteBuffer bundle;
+   private static final HashMap<String, long[]> index = new HashMap<>();
+
+   /**
+    * Opens an asset for reading
+    *
+    * @param name The name of the asset, such as "Hay.png"
+    * @return A stream of the contents of the asset, which supports mark
+    *         and reset as the audio decoders need
+    * @throws IOException If the asset is in neither the bundle nor a file
+    */
+   public static InputStream open(String name) throws IOException
+   {
+      ByteBuffer contents = find(name);
+      if(contents == null)
+         return new BufferedInputStream(
+                    Files.newInputStream(Paths.get(name)));
+      return new BufferInputStream(contents);
+   }
+
+   /**
+    * Reports whether an asset is packed into the bundle
+    *
+    * @param name The name of the asset, such as "Hay.png"
+    * @return True if there is a bundle and the asset is in it
+    */
+   public static synchronized boolean contains(String name)
+   {
+      map();
+      return index.containsKey(name);
+   }
+
+   /**
+    * Reports whether assets are being read from a bundle rather than from
+    * loose files
+    *
+    * @return True if a bundle was found and mapped
+    */
+   public static synchronized boolean isBundled()
+   {
+      map();
+      return bundle != null;
+   }
+
+   /**
+    * Finds an asset in the bundle
+    *
+    * @param name The name of the asset
+    * @return A buffer of its own over the contents of the asset, or null
+    *         if there is no bundle or the asset is not in it
+    */
+   private static synchronized ByteBuffer find(String name)
+   {
+      map();
+      long[] entry = index.get(name);
+      if(entry == null)
+         return null;
+
+      // Each caller gets its own position and limit over the shared map
+      ByteBuffer contents = bundle.duplicate();
+      contents.position((int) entry[0]);
+      contents.limit((int) (entry[0] + entry[1]));
+      return contents.slice();
+   }
+
+   /**
+    * Maps the bundle and reads its index, the first time it is needed
+    */
+   private static void map()
+   {
+      if(opened)
+         return;
+      opened = true;
+
+      Path file = Paths.get(BUNDLE_FILE);
+      if(!Files.isRegularFile(file))
+         return;
+
+      try(FileChannel channel = FileChannel.open(file,
+                                                 StandardOpenOption.READ))
+      {
+         MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+                                            0, channel.size());
+         if(map.getInt() != MAGIC || map.getInt() != VERSION)
+         {
+            System.out.println("Ignoring " + BUNDLE_FILE +
+                               ": not a bundle of this version");
+            return;
+         }
+
+         int count = map.getInt();
+         for(int i = 0; i < count; i++)
+         {
+            byte[] name = new byte[map.getShort() & 0xffff];
+            map.get(name);
+            long offset = map.getLong();
+            long length = map.getInt();
+            if(offset < 0 || offset + length > map.capacity())
+               throw new IOException("asset outside the bundle");
+            index.put(new String(name, StandardCharsets.UTF_8),
+                      new long[] {offset, length});
+         }
+         bundle = map;
+      }
+      catch(IOException | BufferUnderflowException e)
+      {
+         System.out.println("Could not read " + BUNDLE_FILE + ": " + e);
+         index.clear();
+      }
+   }
+
+   /**
+    * Packs the loose asset files, and the variants of ScaledAssets made
+    * from them, into a new bundle in the working directory, replacing any
+    * bundle already there
+    *
+    * @param args Unused
+    */
+   public static void main(String[] args)
+   {
+      try
+      {
+         // Read from the loose files, never from the bundle being replaced
+         LinkedHashMap<String, byte[]> assets = new LinkedHashMap<>();
+         for(String name : ASSETS)
+            assets.put(name, Files.readAllBytes(Paths.get(name)));
+         for(int i = 0; i < ScaledAssets.VARIANT_SOURCES.length; i++)
+         {
+            String source = ScaledAssets.VARIANT_SOURCES[i];
+            int size = ScaledAssets.VARIANT_SIZES[i];
+            double opacity = ScaledAssets.VARIANT_OPACITIES[i];
+            assets.put(ScaledAssets.variantName(source, size, size,
+                                                opacity),
+                       ScaledAssets.encodeVariant(assets.get(source),
+                                                  size, size, opacity));
+         }
+
+         ByteArrayOutputStream header = new ByteArrayOutputStream();
+         DataOutputStream out = new DataOutputStream(header);
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(assets.size());
+
+         // The offsets count from the start of the file, past the header
+         long headerSize = header.size();
+         for(String name : assets.keySet())
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length +
+                          Long.BYTES + Integer.BYTES;
+
+         long offset = headerSize;
+         for(Map.Entry<String, byte[]> asset : assets.entrySet())
+         {
+            out.writeUTF(asset.getKey());
+            out.writeLong(offset);
+            out.writeInt(asset.getValue().length);
+            offset += asset.getValue().length;
+         }
+
+         Path temp = Paths.get(BUNDLE_FILE + ".tmp");
+         try(OutputStream file = Files.newOutputStream(temp))
+         {
+            header.writeTo(file);
+            for(byte[] contents : assets.values())
+               file.write(contents);
+         }
+         Files.move(temp, Paths.get(BUNDLE_FILE),
+                    StandardCopyOption.REPLACE_EXISTING);
+
+         System.out.println("Packed " + assets.size() + " assets into " +
+                            BUNDLE_FILE + " (" + offset / 1024 + " KB)");
+      }
+      catch(IOException e)
+      {
+         System.out.println("Could not build " + BUNDLE_FILE + ": " + e);
+      }
+   }
+
+   /**
+    * Stream over the contents of one asset in the mapped bundle
+    */
+   private static class BufferInputStream extends InputStream
+   {
+      private final ByteBuffer contents;
+
+      /**
+       * Creates a stream over the given contents
+       *
+       * @param contents The contents of the asset
+       */
+      BufferInputStream(ByteBuffer contents)
+      {
+         this.contents = contents;
+         contents.mark();
+      }
+
+      @Override
+      public int read()
+      {
+         if(!contents.hasRemaining())
+            return -1;
+         return contents.get() & 0xff;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length)
+      {
+         if(length == 0)
+            return 0;
+         if(!contents.hasRemaining())
+            return -1;
+
+         length = Math.min(length, contents.remaining());
+         contents.get(bytes, offset, length);
+         return length;
+      }
+
+      @Override
+      public long skip(long count)
+      {
+         int skipped = (int) Math.max(0, Math.min(count,
+                                                  contents.remaining()));
+         contents.position(contents.position() + skipped);
+         return skipped;
+      }
+
+      @Override
+      public int available()
+      {
+         return contents.remaining();
+      }
+
+      @Override
+      public boolean markSupported()
+      {
+         return true;
+      }
+
+      @Override
+      public synchronized void mark(int limit)
+      {
+         contents.mark();
+      }
+
+      @Override
+      public synchronized void reset()
+      {
+         contents.reset();
+      }
+   }
+}
@@ -0,0 +1,203 @@
+package TemplarHunt;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Command-line simulator used to tune the score thresholds, the number of
+ * enemies in each round, and the movement of the zones. It plays a number
+ * of complete games with scripted input or the greedy bot, each one on
+ * its own virtual thread with no window and a clock that only moves when
+ * a tick is played, so games run as fast as the processors allow and
+ * spread across all of them. It reports how often each round was passed,
+ * the spread of final scores, and how long each round took to compute,
+ * with the number of games played per second as the headline figure.
+ *
+ * The player is either a script, a string of moves as read by
+ * ScriptedInput, or "bot" for GreedyBot; the default script sweeps the
+ * playfield row by row.
+ *
+ * Run with: java TemplarHunt.BatchSimulator [games] [script | bot]
+ *
+ * @author Devon Lee
+ */
+public class BatchSimulator
+{
+   private static final int DEFAULT_GAMES = 10000;
+   private static final String DEFAULT_SCRIPT = "RRRRRRRRRRRRRRRRD";
+   private static final String BOT = "bot";
+   private static final int NUM_ROUNDS = GameEngine.NUM_ROUNDS;
+   private static final int HISTOGRAM_BUCKETS = 10;
+   private static final int HISTOGRAM_WIDTH = 50;
+   private static final double NANOS_PER_MILLI = 1000000.0;
+   private static final double NANOS_PER_SEC = 1000000000.0;
+
+   // Totals for each round, added to by every game at once
+   private static final LongAdder[] played = newAdders();
+   private static final LongAdder[] passed = newAdders();
+   private static final LongAdder[] roundScores = newAdders();
+   private static final LongAdder[] roundNanos = newAdders();
+   private static final LongAdder failedGames = new LongAdder();
+
+   /**
+    * Plays the games and prints the report
+    *
+    * @param args The number of games, then the script of moves or "bot";
+    *             both are optional
+    */
+   public static void main(String[] args)
+   {
+      int games = args.length > 0 ? Integer.parseInt(args[0])
+                                  : DEFAULT_GAMES;
+      String player = args.length > 1 ? args[1] : DEFAULT_SCRIPT;
+      Supplier<PlayerInput> inputs;
+      if(player.equals(BOT))
+         inputs = GreedyBot::new;
+      else
+      {
+         new ScriptedInput(player); // Rejects a bad script up front
+         inputs = () -> new ScriptedInput(player);
+      }
+
+      int[] totalScores = new int[games];
+      long start = System.nanoTime();
+      try(ExecutorService threads =
+                          Executors.newVirtualThreadPerTaskExecutor())
+      {
+         for(int i = 0; i < games; i++)
+         {
+            int game = i;
+            threads.execute(() -> totalScores[game] =
+                                  playGame(inputs.get()));
+         }
+      }
+      long elapsed = System.nanoTime() - start;
+
+      System.out.println("Processors: " +
+                         Runtime.getRuntime().availableProcessors());
+      System.out.printf("Played %d games in %.2f s: %.1f games/s%n",
+                        games, elapsed / NANOS_PER_SEC,
+                        games / (elapsed / NANOS_PER_SEC));
+      if(failedGames.sum() > 0)
+         System.out.println("Games that failed: " + failedGames.sum());
+      printRounds();
+      printScores(totalScores);
+   }
+
+   /**
+    * Plays one game to the end, adding its rounds to the totals
+    *
+    * @param input Where the moves of the player come from
+    * @return The final score of the game
+    */
+   private static int playGame(PlayerInput input)
+   {
+      try
+      {
+         HeadlessGame game = new HeadlessGame(input);
+         while(game.hasNextRound())
+         {
+            long start = System.nanoTime();
+            game.playRound();
+            long nanos = System.nanoTime() - start;
+
+            GameEngine engine = game.getEngine();
+            int round = engine.getRoundID() - 1;
+            played[round].increment();
+            if(engine.passedLevel() || engine.lastRound())
+               passed[round].increment();
+            roundScores[round].add(engine.getRoundScore());
+            roundNanos[round].add(nanos);
+         }
+         return game.getEngine().getTotalScore();
+      }
+      catch(RuntimeException e)
+      {
+         failedGames.increment();
+         System.out.println("A game failed: " + e);
+         return 0;
+      }
+   }
+
+   /**
+    * Prints how many games reached and passed each round, their average
+    * score, and the average time taken to compute the round
+    */
+   private static void printRounds()
+   {
+      System.out.printf("%5s %9s %9s %7s %10s %9s%n", "round", "played",
+                        "passed", "rate", "avg score", "avg ms");
+      for(int i = 0; i < NUM_ROUNDS; i++)
+      {
+         long count = played[i].sum();
+         if(count == 0)
+            break;
+         System.out.printf("%5d %9d %9d %6.1f%% %10.1f %9.3f%n", i + 1,
+                           count, passed[i].sum(),
+                           100.0 * passed[i].sum() / count,
+                           (double) roundScores[i].sum() / count,
+                           roundNanos[i].sum() / NANOS_PER_MILLI / count);
+      }
+   }
+
+   /**
+    * Prints the spread of the final scores as percentiles and a histogram
+    *
+    * @param totalScores The final score of every game
+    */
+   private static void printScores(int[] totalScores)
+   {
+      if(totalScores.length == 0)
+         return;
+
+      int[] sorted = totalScores.clone();
+      Arrays.sort(sorted);
+      double mean = Arrays.stream(sorted).average().orElse(0);
+      System.out.printf("Final score: mean %.1f, min %d, 10%% %d, " +
+                        "median %d, 90%% %d, max %d%n", mean, sorted[0],
+                        percentile(sorted, 10), percentile(sorted, 50),
+                        percentile(sorted, 90), sorted[sorted.length - 1]);
+
+      int low = sorted[0];
+      long width = Math.max(1, ((long) sorted[sorted.length - 1] - low) /
+                               HISTOGRAM_BUCKETS + 1);
+      int[] buckets = new int[HISTOGRAM_BUCKETS];
+      for(int score : sorted)
+         buckets[(int) ((score - (long) low) / width)]++;
+
+      int most = Arrays.stream(buckets).max().orElse(1);
+      for(int i = 0; i < HISTOGRAM_BUCKETS; i++)
+         System.out.printf("%7d to %7d %8d %s%n", low + i * width,
+                           low + (i + 1) * width - 1, buckets[i],
+                           "#".repeat((int) ((long) buckets[i] *
+                                      HISTOGRAM_WIDTH / most)));
+   }
+
+   /**
+    * Gets a percentile of a sorted list of scores
+    *
+    * @param sorted The scores, lowest first
+    * @param percent The percentile, from 0 to 100
+    * @return The score below which that percent of the scores fall
+    */
+   private static int percentile(int[] sorted, int percent)
+   {
+      return sorted[(int) ((long) (sorted.length - 1) * percent / 100)];
+   }
+
+   /**
+    * Creates one counter for each round
+    *
+    * @return The counters, all at zero
+    */
+   private static LongAdder[] newAdders()
+   {
+      LongAdder[] adders = new LongAdder[NUM_ROUNDS];
+      for(int i = 0; i < adders.length; i++)
+         adders[i] = new LongAdder();
+      return adders;
+   }
+}
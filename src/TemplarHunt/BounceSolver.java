@@ -0,0 +1,139 @@
+package TemplarHunt;
+
+/**
+ * Computes where a figure bouncing along one axis at a speed of one pixel
+ * per step ends up after any number of steps, without stepping it. Once a
+ * figure is within the bounds it travels a triangle wave of period
+ * 2 * limit, so its path can be unfolded onto a straight line, advanced,
+ * and folded back by reflecting at the edges.
+ *
+ * The bounce rule matches the move methods of the bouncing figures: move
+ * one step, then turn around if heading out of [0, limit] and at or past
+ * the edge.
+ *
+ * @author Devon Lee
+ */
+public class BounceSolver
+{
+   /**
+    * Utility class; not meant to be instantiated
+    */
+   private BounceSolver() {}
+
+
+   /**
+    * Gets the position of a bouncing figure after the given number of
+    * steps
+    *
+    * @param position The starting position on the axis
+    * @param velocity The starting velocity on the axis, +1 or -1
+    * @param limit The highest position the figure may reach on the axis,
+    *              i.e. the stage size minus the size of the figure
+    * @param steps The number of steps to advance
+    * @return The position after the given number of steps
+    */
+   public static int positionAfter(int position, int velocity, int limit,
+                                   long steps)
+   {
+      long toEnter = stepsToEnter(position, velocity, limit);
+      if(steps <= toEnter)
+         return positionWhileEntering(position, velocity, limit, steps);
+
+      long phase = (enteredPhase(position, velocity, limit) +
+                   steps - toEnter) % (2L * limit);
+      return (int) (phase <= limit ? phase : 2L * limit - phase);
+   }
+
+   /**
+    * Gets the velocity of a bouncing figure after the given number of
+    * steps
+    *
+    * @param position The starting position on the axis
+    * @param velocity The starting velocity on the axis, +1 or -1
+    * @param limit The highest position the figure may reach on the axis
+    * @param steps The number of steps to advance
+    * @return The velocity after the given number of steps, +1 or -1
+    */
+   public static int velocityAfter(int position, int velocity, int limit,
+                                   long steps)
+   {
+      long toEnter = stepsToEnter(position, velocity, limit);
+      if(steps < toEnter)
+      {
+         boolean turnsFirst = velocity > 0 && position >= limit ||
+                              velocity < 0 && position <= 0;
+         return steps > 0 && turnsFirst ? -velocity : velocity;
+      }
+
+      long phase = (enteredPhase(position, velocity, limit) +
+                   steps - toEnter) % (2L * limit);
+      return phase < limit ? 1 : -1;
+   }
+
+
+   /**
+    * Counts the steps until the figure is traveling the triangle wave,
+    * i.e. inside the bounds and not about to turn around. Figures that
+    * start past an edge or heading into one first walk back in.
+    *
+    * @param position The starting position on the axis
+    * @param velocity The starting velocity on the axis, +1 or -1
+    * @param limit The highest position the figure may reach on the axis
+    * @return The number of steps before the regular bouncing begins
+    */
+   private static long stepsToEnter(int position, int velocity, int limit)
+   {
+      if(velocity > 0 && position >= limit)
+         return 2L + position - limit; // Turns, then walks back to limit
+      if(velocity < 0 && position <= 0)
+         return 2L - position;         // Turns, then walks back to 0
+      if(velocity > 0 && position < 0)
+         return -position;
+      if(velocity < 0 && position > limit)
+         return (long) position - limit;
+      return 0;
+   }
+
+   /**
+    * Gets the position of a figure that has not yet begun regular
+    * bouncing
+    *
+    * @param position The starting position on the axis
+    * @param velocity The starting velocity on the axis, +1 or -1
+    * @param limit The highest position the figure may reach on the axis
+    * @param steps The number of steps taken, no more than stepsToEnter
+    * @return The position after the given number of steps
+    */
+   private static int positionWhileEntering(int position, int velocity,
+                                            int limit, long steps)
+   {
+      if(steps == 0)
+         return position;
+      if(velocity > 0 && position >= limit)
+         return (int) (position + 2 - steps);
+      if(velocity < 0 && position <= 0)
+         return (int) (position - 2 + steps);
+      return (int) (position + velocity * steps);
+   }
+
+   /**
+    * Gets the unfolded position (from 0 to 2 * limit) of the figure at
+    * the moment it begins regular bouncing; phases past limit are on the
+    * way back down
+    *
+    * @param position The starting position on the axis
+    * @param velocity The starting velocity on the axis, +1 or -1
+    * @param limit The highest position the figure may reach on the axis
+    * @return The phase of the figure when it enters the triangle wave
+    */
+   private static long enteredPhase(int position, int velocity, int limit)
+   {
+      if(velocity > 0 && position >= limit ||
+         velocity < 0 && position > limit)
+         return limit;
+      if(velocity < 0 && position <= 0 ||
+         velocity > 0 && position < 0)
+         return 0;
+      return velocity > 0 ? position : 2L * limit - position;
+   }
+}
@@ -0,0 +1,152 @@
+package TemplarHunt;
+
+import java.util.Random;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Command-line benchmark of the SpatialGrid broadphase. For several
+ * population sizes it bounces enemy-sized boxes around the playfield and
+ * reports the average cost per tick of keeping the grid up to date and of
+ * each kind of query the game makes, next to checking the player against
+ * every figure in turn. Checking the player directly is cheaper than
+ * keeping the grid up to date at every size measured, so GameWorld checks
+ * the player that way and only updates the grid for the queries that ask
+ * for it.
+ *
+ * Run with: java TemplarHunt.BroadphaseBenchmark
+ *
+ * @author Devon Lee
+ */
+public class BroadphaseBenchmark
+{
+   private static final int[] POPULATIONS = new int[]
+                                            {10, 30, 100, 300, 1000, 3000,
+                                             10000, 30000, 100000};
+   private static final int WARM_UP_TICKS = 20;
+   private static final int MEASURED_TICKS = 100;
+   private static final int SIZE = EnemyStore.SIZE;
+   private static final int PLAYER_SIZE = PlayerModel.SIZE;
+
+   // Enemy-vs-enemy sweeps are sampled above this size and scaled up
+   private static final int MAX_FULL_SWEEP = 3000;
+   private static final int SWEEP_SAMPLE = 20;
+
+   private static int sink = 0;
+
+   /**
+    * Runs the benchmark for each population size
+    *
+    * @param args Unused
+    */
+   public static void main(String[] args)
+   {
+      System.out.printf("%8s %12s %12s %12s %12s %14s%n", "figures",
+                        "update", "player", "brute force", "vs zones",
+                        "enemy-vs-enemy");
+
+      for(int population : POPULATIONS)
+         run(population);
+
+      if(sink == 42)
+         System.out.println();
+   }
+
+   /**
+    * Benchmarks one population size and prints a row of results in
+    * nanoseconds per tick
+    *
+    * @param population The number of figures to simulate
+    */
+   private static void run(int population)
+   {
+      Random random = new Random(population);
+      int limit = STAGE_SIZE - SIZE;
+
+      int[] xs = new int[population];
+      int[] ys = new int[population];
+      int[] xVels = new int[population];
+      int[] yVels = new int[population];
+
+      SpatialGrid grid = new SpatialGrid(-ZONE_SIZE,
+                                         STAGE_SIZE + ZONE_SIZE,
+                                         STAGE_SIZE / 6);
+      SpatialGrid zoneGrid = new SpatialGrid(-ZONE_SIZE,
+                                             STAGE_SIZE + ZONE_SIZE,
+                                             STAGE_SIZE / 6);
+
+      for(int i = 0; i < population; i++)
+      {
+         xs[i] = random.nextInt(limit);
+         ys[i] = random.nextInt(limit);
+         xVels[i] = random.nextBoolean() ? 1 : -1;
+         yVels[i] = random.nextBoolean() ? 1 : -1;
+         grid.insert(i, xs[i], ys[i], SIZE, SIZE);
+      }
+      for(int i = 0; i < GameWorld.NUM_ZONES; i++)
+         zoneGrid.insert(i, (i % 3) * ZONE_SIZE, (i / 3) * ZONE_SIZE,
+                         ZONE_SIZE, ZONE_SIZE);
+
+      long update = 0, player = 0, brute = 0, zones = 0, pairs = 0;
+      int sweep = Math.min(population, MAX_FULL_SWEEP);
+      if(population > MAX_FULL_SWEEP)
+         sweep = SWEEP_SAMPLE;
+
+      for(int tick = 0; tick < WARM_UP_TICKS + MEASURED_TICKS; tick++)
+      {
+         boolean measured = tick >= WARM_UP_TICKS;
+         int playerX = random.nextInt(STAGE_SIZE - PLAYER_SIZE);
+         int playerY = random.nextInt(STAGE_SIZE - PLAYER_SIZE);
+
+         long start = System.nanoTime();
+         for(int i = 0; i < population; i++)
+         {
+            xs[i] += xVels[i];
+            ys[i] += yVels[i];
+            if(xVels[i] < 0 && xs[i] <= 0 ||
+               xVels[i] > 0 && xs[i] >= limit)
+               xVels[i] = -xVels[i];
+            if(yVels[i] < 0 && ys[i] <= 0 ||
+               yVels[i] > 0 && ys[i] >= limit)
+               yVels[i] = -yVels[i];
+            grid.update(i, xs[i], ys[i], SIZE, SIZE);
+         }
+         long afterUpdate = System.nanoTime();
+
+         sink += grid.query(playerX, playerY, PLAYER_SIZE, PLAYER_SIZE);
+         long afterPlayer = System.nanoTime();
+
+         for(int i = 0; i < population; i++)
+            if(playerX + PLAYER_SIZE >= xs[i] &&
+               xs[i] + SIZE >= playerX &&
+               playerY + PLAYER_SIZE >= ys[i] &&
+               ys[i] + SIZE >= playerY)
+               sink++;
+         long afterBrute = System.nanoTime();
+
+         for(int i = 0; i < population; i++)
+            sink += zoneGrid.queryPoint(xs[i] + SIZE / 2, ys[i] + SIZE / 2);
+         long afterZones = System.nanoTime();
+
+         for(int i = 0; i < sweep; i++)
+            sink += grid.query(xs[i], ys[i], SIZE, SIZE);
+         long afterPairs = System.nanoTime();
+
+         if(measured)
+         {
+            update += afterUpdate - start;
+            player += afterPlayer - afterUpdate;
+            brute += afterBrute - afterPlayer;
+            zones += afterZones - afterBrute;
+            pairs += (afterPairs - afterZones) * (population / sweep);
+         }
+      }
+
+      System.out.printf("%8d %12d %12d %12d %12d %14d%s%n", population,
+                        update / MEASURED_TICKS, player / MEASURED_TICKS,
+                        brute / MEASURED_TICKS, zones / MEASURED_TICKS,
+                        pairs / MEASURED_TICKS,
+                        sweep < population ? " (est.)" : "");
+   }
+}
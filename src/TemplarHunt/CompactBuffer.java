@@ -0,0 +1,268 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A growable run of bytes that numbers are written to and read back from
+ * in as few bytes as they need, for replays and snapshots of the game.
+ * Varints are written seven bits at a time, lowest first, with the high
+ * bit of each byte set if more follow; signed numbers are zigzagged first
+ * so that small negative numbers stay short too. Fixed-size numbers are
+ * big-endian.
+ *
+ * @author Devon Lee
+ */
+public class CompactBuffer
+{
+   private static final int INITIAL_CAPACITY = 256;
+   private static final int MAX_VARINT_BYTES = 10;
+
+   private byte[] bytes;
+   private int length;
+   private int position = 0;
+
+   /**
+    * Creates an empty buffer to write to
+    */
+   public CompactBuffer()
+   {
+      bytes = new byte[INITIAL_CAPACITY];
+      length = 0;
+   }
+
+   /**
+    * Creates a buffer that reads the given bytes from the start
+    *
+    * @param bytes The bytes to read
+    */
+   public CompactBuffer(byte[] bytes)
+   {
+      this.bytes = bytes;
+      length = bytes.length;
+   }
+
+   /**
+    * Gets the number of bytes in the buffer
+    *
+    * @return The number of bytes written or given
+    */
+   public int size()
+   {
+      return length;
+   }
+
+   /**
+    * Reports whether there are bytes left to read
+    *
+    * @return True if not everything has been read, false otherwise
+    */
+   public boolean hasRemaining()
+   {
+      return position < length;
+   }
+
+   /**
+    * Gets a copy of the bytes in the buffer
+    *
+    * @return The bytes written or given
+    */
+   public byte[] toBytes()
+   {
+      return Arrays.copyOf(bytes, length);
+   }
+
+   /**
+    * Writes a single byte
+    *
+    * @param value The byte, in its lowest eight bits
+    */
+   public void writeByte(int value)
+   {
+      ensureRoom(1);
+      bytes[length++] = (byte) value;
+   }
+
+   /**
+    * Writes an int in four bytes
+    *
+    * @param value The int
+    */
+   public void writeInt(int value)
+   {
+      for(int shift = 24; shift >= 0; shift -= 8)
+         writeByte(value >>> shift);
+   }
+
+   /**
+    * Writes a long in eight bytes
+    *
+    * @param value The long
+    */
+   public void writeLong(long value)
+   {
+      for(int shift = 56; shift >= 0; shift -= 8)
+         writeByte((int) (value >>> shift));
+   }
+
+   /**
+    * Writes a number that is never negative in as few bytes as it needs
+    *
+    * @param value The number; negative numbers take ten bytes
+    */
+   public void writeVarint(long value)
+   {
+      ensureRoom(MAX_VARINT_BYTES);
+      while((value & ~0x7FL) != 0)
+      {
+         bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      bytes[length++] = (byte) value;
+   }
+
+   /**
+    * Writes a number that may be negative in as few bytes as it needs
+    *
+    * @param value The number
+    */
+   public void writeSigned(long value)
+   {
+      writeVarint((value << 1) ^ (value >> 63));
+   }
+
+   /**
+    * Writes a boolean in one byte
+    *
+    * @param value The boolean
+    */
+   public void writeBoolean(boolean value)
+   {
+      writeByte(value ? 1 : 0);
+   }
+
+   /**
+    * Writes a run of bytes after its length
+    *
+    * @param run The bytes
+    */
+   public void writeBytes(byte[] run)
+   {
+      writeVarint(run.length);
+      ensureRoom(run.length);
+      System.arraycopy(run, 0, bytes, length, run.length);
+      length += run.length;
+   }
+
+   /**
+    * Reads a single byte
+    *
+    * @return The byte, from -128 to 127
+    * @throws IOException If there is nothing left to read
+    */
+   public byte readByte() throws IOException
+   {
+      if(position >= length)
+         throw new IOException("unexpected end of the data");
+      return bytes[position++];
+   }
+
+   /**
+    * Reads an int written in four bytes
+    *
+    * @return The int
+    * @throws IOException If the bytes end before the int does
+    */
+   public int readInt() throws IOException
+   {
+      int value = 0;
+      for(int i = 0; i < 4; i++)
+         value = value << 8 | readByte() & 0xFF;
+      return value;
+   }
+
+   /**
+    * Reads a long written in eight bytes
+    *
+    * @return The long
+    * @throws IOException If the bytes end before the long does
+    */
+   public long readLong() throws IOException
+   {
+      long value = 0;
+      for(int i = 0; i < 8; i++)
+         value = value << 8 | readByte() & 0xFF;
+      return value;
+   }
+
+   /**
+    * Reads a number written by writeVarint
+    *
+    * @return The number
+    * @throws IOException If the bytes end before the number does
+    */
+   public long readVarint() throws IOException
+   {
+      long value = 0;
+      for(int shift = 0; shift < 64; shift += 7)
+      {
+         byte b = readByte();
+         value |= (long) (b & 0x7F) << shift;
+         if(b >= 0)
+            return value;
+      }
+      throw new IOException("number too long in the data");
+   }
+
+   /**
+    * Reads a number written by writeSigned
+    *
+    * @return The number
+    * @throws IOException If the bytes end before the number does
+    */
+   public long readSigned() throws IOException
+   {
+      long zigzag = readVarint();
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+   }
+
+   /**
+    * Reads a boolean written by writeBoolean
+    *
+    * @return The boolean
+    * @throws IOException If there is nothing left to read
+    */
+   public boolean readBoolean() throws IOException
+   {
+      return readByte() != 0;
+   }
+
+   /**
+    * Reads a run of bytes written by writeBytes
+    *
+    * @return The bytes
+    * @throws IOException If the bytes end before the run does
+    */
+   public byte[] readBytes() throws IOException
+   {
+      long size = readVarint();
+      if(size > length - position)
+         throw new IOException("unexpected end of the data");
+      byte[] run = Arrays.copyOfRange(bytes, position,
+                                      position + (int) size);
+      position += (int) size;
+      return run;
+   }
+
+   /**
+    * Makes room to write more bytes, doubling the buffer as needed
+    *
+    * @param needed The number of bytes about to be written
+    */
+   private void ensureRoom(int needed)
+   {
+      if(length + needed > bytes.length)
+         bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2,
+                                               length + needed));
+   }
+}
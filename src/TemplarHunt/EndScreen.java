@@ -143,7 +143,7 @@ public class EndScreen extends MenuScreen
       for(int i = 0; i < NUM_HIGH_SCORES_SAVED; i++)
       {
          names[i].setText((i + 1) + ". " + data.getName(i));
-         scores[i].setText(String.valueOf(data.getScore(i)));
+         scores[i].setText(HighScoresData.toText(data.getScore(i)));
       }
    }
 
@@ -0,0 +1,155 @@
+package TemplarHunt;
+
+import static TemplarHunt.GameWorld.ENEMIES_IN_ROUND;
+import static TemplarHunt.GameWorld.SPECIAL_ENEMIES_IN_ROUND;
+
+/**
+ * Rules and bookkeeping for endless mode, which keeps playing rounds past
+ * the last regular one with the number of enemies growing geometrically
+ * every round. It also watches how long frames take: once a round can no
+ * longer be drawn at the target frame rate the game ends, and the largest
+ * number of enemies that was drawn smoothly is reported. This doubles as
+ * the standard stress test of the game on a given machine, so every round
+ * is passed whatever the player scores, and the count reported depends
+ * only on the machine. For the same reason its scores are kept off the
+ * high scores of the regular game.
+ *
+ * @author Devon Lee
+ */
+public class EndlessMode
+{
+   public static final int TARGET_FPS = 50;
+   // A round score can fall below zero, in hay zones, so no score can
+   // fail a round, as in the last regular round
+   public static final int SCORE_THRESHOLD = Integer.MIN_VALUE;
+
+   private static final long FRAME_BUDGET = 1000000000L / TARGET_FPS;
+   private static final int LAST_TABLE_ROUND = ENEMIES_IN_ROUND.length - 1;
+   private static final int STARTING_ENEMIES =
+                            ENEMIES_IN_ROUND[LAST_TABLE_ROUND] +
+                            SPECIAL_ENEMIES_IN_ROUND[LAST_TABLE_ROUND];
+   private static final double GROWTH_FACTOR = 2.0;
+   private static final int MAX_ENEMIES = 1 << 22;
+   private static final int SPECIAL_ENEMY_RATIO = 4;
+
+   // Frames at the start of a round are skipped while the new figures
+   // settle in, then frame times are averaged over a sliding window
+   private static final int WARM_UP_FRAMES = 25;
+   private static final int WINDOW_FRAMES = TARGET_FPS;
+
+   private final long[] window = new long[WINDOW_FRAMES];
+   private long windowTotal;
+   private int framesThisRound;
+
+   private int enemiesThisRound;
+   private boolean budgetExhausted = false;
+   private boolean roundSustained;
+   private int highestSustained = 0;
+
+   /**
+    * Gets the total number of enemies, regular and special, in a round of
+    * endless mode
+    *
+    * @param roundID The number of the round, starting at 1
+    * @return The number of enemies in the round
+    */
+   public static int getNumEnemies(int roundID)
+   {
+      double enemies = STARTING_ENEMIES *
+                       Math.pow(GROWTH_FACTOR, roundID - 1);
+      return (int) Math.min(enemies, MAX_ENEMIES);
+   }
+
+   /**
+    * Gets how many of the enemies in a round of endless mode are special
+    *
+    * @param roundID The number of the round, starting at 1
+    * @return The number of special enemies in the round
+    */
+   public static int getNumSpecialEnemies(int roundID)
+   {
+      return getNumEnemies(roundID) / SPECIAL_ENEMY_RATIO;
+   }
+
+
+   /**
+    * Starts measuring a new round
+    *
+    * @param numEnemies The number of enemies in the round
+    */
+   public void startRound(int numEnemies)
+   {
+      enemiesThisRound = numEnemies;
+      framesThisRound = 0;
+      windowTotal = 0;
+      roundSustained = false;
+   }
+
+   /**
+    * Records how long the latest frame took, from the start of the frame
+    * before it
+    *
+    * @param frameNanos The length of the frame in nanoseconds
+    */
+   public void recordFrame(long frameNanos)
+   {
+      framesThisRound++;
+      if(framesThisRound <= WARM_UP_FRAMES)
+         return;
+
+      int slot = (framesThisRound - WARM_UP_FRAMES - 1) % WINDOW_FRAMES;
+      windowTotal += frameNanos - window[slot];
+      window[slot] = frameNanos;
+
+      if(framesThisRound - WARM_UP_FRAMES >= WINDOW_FRAMES)
+      {
+         if(windowTotal > FRAME_BUDGET * WINDOW_FRAMES)
+            budgetExhausted = true;
+         else
+            roundSustained = true;
+      }
+   }
+
+   /**
+    * Finishes measuring the round; it counts as sustained if a full window
+    * of frames was drawn within budget and it never fell behind
+    */
+   public void endRound()
+   {
+      if(roundSustained && !budgetExhausted)
+         highestSustained = Math.max(highestSustained, enemiesThisRound);
+   }
+
+   /**
+    * Reports whether frames have fallen behind the target frame rate,
+    * which ends endless mode
+    *
+    * @return True if the frame budget has been exhausted, false otherwise
+    */
+   public boolean budgetExhausted()
+   {
+      return budgetExhausted;
+   }
+
+   /**
+    * Gets the largest number of enemies in a round that was drawn at the
+    * target frame rate for at least a full window of frames
+    *
+    * @return The highest sustainable enemy count, or 0 if none was
+    */
+   public int getHighestSustainedCount()
+   {
+      return highestSustained;
+   }
+
+   /**
+    * Gets a summary of the result of the run, suitable for display
+    *
+    * @return A description of the highest sustainable enemy count
+    */
+   public String getReport()
+   {
+      return "Most enemies kept at " + TARGET_FPS + " fps: " +
+             highestSustained;
+   }
+}
@@ -0,0 +1,83 @@
+package TemplarHunt;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+
+/**
+ * This class handles the enemies of our game. It draws every enemy of an
+ * EnemyStore on the game pane, reading the positions straight out of the
+ * store each frame and hiding an assassin while it is caught.
+ *
+ * @author Devon Lee
+ * @author Nathan Laures
+ * @author Donna Gavin
+ */
+public class EnemyLayer extends Pane
+{
+   private final EnemyStore enemies;
+   private final Pane pane;
+   private final ImageView[] icons;
+
+   /**
+    * Constructor for the enemy layer; creates an icon for each enemy and
+    * draws them at the end
+    *
+    * Regular enemy file obtained from PikPNG.com
+    * Special enemy file obtained from Teemato.com
+    *
+    * @param enemies The simulation state of the enemies
+    * @param pane - pane it is created on
+    */
+   public EnemyLayer(EnemyStore enemies, Pane pane)
+   {
+      this.enemies = enemies;
+      this.pane = pane;
+      icons = new ImageView[enemies.size()];
+
+      try
+      {
+         Image regular = ScaledAssets.get("Assassin.png", EnemyStore.SIZE,
+                                          EnemyStore.SIZE);
+         Image special = ScaledAssets.get("SuperAssassin.jpg",
+                                          EnemyStore.SIZE, EnemyStore.SIZE);
+
+         for(int i = 0; i < icons.length; i++)
+         {
+            if(enemies.isSpecialEnemy(i))
+               icons[i] = new ImageView(special);
+            else
+               icons[i] = new ImageView(regular);
+
+            getChildren().add(icons[i]);
+         }
+
+         draw(1.0);
+      }
+      catch(Exception e)
+      {
+         System.out.println("An error occured: " + e);
+      }
+   }
+
+
+   /**
+    * Moves each icon to the position of its enemy, hiding the enemies that
+    * are tagged
+    *
+    * @param alpha How far between their positions before and after the
+    *              last tick to draw the enemies, from 0 to 1
+    */
+   public void draw(double alpha)
+   {
+      for(int i = 0; i < icons.length; i++)
+         if(icons[i] != null)
+         {
+            icons[i].setX(enemies.getRenderX(i, alpha));
+            icons[i].setY(enemies.getRenderY(i, alpha));
+            icons[i].setVisible(!enemies.isTagged(i));
+         }
+
+      pane.setVisible(true);
+   }
+}
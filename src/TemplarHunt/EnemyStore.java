@@ -0,0 +1,604 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Simulation state of all of the enemies of a round, stored as parallel
+ * primitive columns indexed by enemy rather than as one object per enemy.
+ * Enemies bounce around the playfield, can be tagged by the player, and
+ * report the zone multiplier of the zones they were centered in when
+ * tagged. Moving every enemy is a single loop over the columns.
+ *
+ * Large populations are moved and classified against the zones in
+ * parallel, in chunks of consecutive enemies on the common fork-join
+ * pool. Each chunk only writes the columns of its own enemies and only
+ * reads a snapshot of the zones, so no locking is needed; random turns are
+ * drawn up front on the calling thread so that the random sequence does
+ * not depend on how the work was split. All randomness comes from the
+ * random number generator of the round, so a round with the same seed
+ * plays out the same.
+ *
+ * @author Devon Lee
+ * @author Nathan Laures
+ * @author Donna Gavin
+ */
+public class EnemyStore
+{
+   public static final int SIZE = 100;
+   private static final int LIMIT = STAGE_SIZE - SIZE;
+   private static final int SPECIAL_MOVE_PROBABILITY = 150;
+   private static final int INITIAL_CAPACITY = 8;
+
+   // Populations at least this large are updated in parallel. This is a
+   // guess, not a measurement: MovementBenchmark has only been run on a
+   // single processor, where parallel never wins. From the dispatch cost
+   // and per-enemy cost it measured there, it estimates a two-core
+   // break-even of some 350 enemies, but that leaves out the time pool
+   // workers take to wake up, which one processor cannot show. The guess
+   // is kept well above the estimate so a wrong one costs little; rerun
+   // the benchmark on a multi-core machine and set it from there.
+   public static final int PARALLEL_THRESHOLD = 8192;
+   private static final int CHUNK_SIZE = 2048;
+
+   // Random turns of special enemies, drawn before each parallel move
+   private static final byte NO_TURN = 0;
+   private static final byte TURN_X = 1;
+   private static final byte TURN_Y = 2;
+
+   private final Random random;
+   private int count = 0;
+   private int numTagged = 0;
+   private int parallelThreshold = defaultParallelThreshold();
+
+   private int[] xs;
+   private int[] ys;
+   private int[] xVels;
+   private int[] yVels;
+   private int[] previousXs;
+   private int[] previousYs;
+   private byte[] turns;
+   private int[] zoneMultipliers;
+   private long[] tagged;
+   private long[] special;
+
+   /**
+    * Creates an empty store
+    */
+   public EnemyStore()
+   {
+      this(INITIAL_CAPACITY);
+   }
+
+   /**
+    * Creates an empty store with room for the given number of enemies
+    * before it has to grow
+    *
+    * @param capacity The number of enemies expected
+    */
+   public EnemyStore(int capacity)
+   {
+      this(capacity, new Random());
+   }
+
+   /**
+    * Creates an empty store with room for the given number of enemies
+    * before it has to grow, whose special enemies turn according to the
+    * given random number generator
+    *
+    * @param capacity The number of enemies expected
+    * @param random The random number generator of the round
+    */
+   public EnemyStore(int capacity, Random random)
+   {
+      this.random = random;
+      capacity = Math.max(capacity, 1);
+      xs = new int[capacity];
+      ys = new int[capacity];
+      xVels = new int[capacity];
+      yVels = new int[capacity];
+      previousXs = new int[capacity];
+      previousYs = new int[capacity];
+      turns = new byte[capacity];
+      zoneMultipliers = new int[capacity];
+      tagged = new long[words(capacity)];
+      special = new long[words(capacity)];
+   }
+
+
+   /**
+    * Adds an untagged enemy heading down and to the right
+    *
+    * @param x The starting x-coordinate of the enemy
+    * @param y The starting y-coordinate of the enemy
+    * @param isSpecial Whether the enemy is a special enemy or not
+    * @return The index of the new enemy
+    */
+   public int add(int x, int y, boolean isSpecial)
+   {
+      if(count == xs.length)
+         grow(count * 2);
+
+      xs[count] = x;
+      ys[count] = y;
+      previousXs[count] = x;
+      previousYs[count] = y;
+      xVels[count] = 1;
+      yVels[count] = 1;
+      if(isSpecial)
+         special[count >> 6] |= 1L << count;
+
+      return count++;
+   }
+
+   /**
+    * Gets the number of enemies in the store
+    *
+    * @return The number of enemies
+    */
+   public int size()
+   {
+      return count;
+   }
+
+   /**
+    * Sets the population at and above which the store moves and
+    * classifies its enemies in parallel; only useful for measuring
+    *
+    * @param threshold The smallest population updated in parallel
+    */
+   public void setParallelThreshold(int threshold)
+   {
+      parallelThreshold = threshold;
+   }
+
+   /**
+    * Reports whether the store currently updates its enemies in parallel
+    *
+    * @return True if the enemies are updated in parallel, false otherwise
+    */
+   public boolean isParallel()
+   {
+      return count >= parallelThreshold;
+   }
+
+   /**
+    * Gets the population at which to start working in parallel on this
+    * machine; never, if there is only one processor to work with
+    *
+    * @return The default parallel threshold
+    */
+   private static int defaultParallelThreshold()
+   {
+      if(Runtime.getRuntime().availableProcessors() > 1)
+         return PARALLEL_THRESHOLD;
+      return Integer.MAX_VALUE;
+   }
+
+   /**
+    * Gets the x-coordinate of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The x-coordinate of the enemy
+    */
+   public int getX(int index)
+   {
+      return xs[index];
+   }
+
+   /**
+    * Gets the y-coordinate of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The y-coordinate of the enemy
+    */
+   public int getY(int index)
+   {
+      return ys[index];
+   }
+
+   /**
+    * Gets the x-velocity of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The x-velocity of the enemy, +1 or -1
+    */
+   public int getXVel(int index)
+   {
+      return xVels[index];
+   }
+
+   /**
+    * Gets the y-velocity of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The y-velocity of the enemy, +1 or -1
+    */
+   public int getYVel(int index)
+   {
+      return yVels[index];
+   }
+
+   /**
+    * Gets the x-coordinate of the center of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The x-coordinate of the center of the enemy
+    */
+   public int getXCenter(int index)
+   {
+      return xs[index] + SIZE / 2;
+   }
+
+   /**
+    * Gets the y-coordinate of the center of an enemy
+    *
+    * @param index The index of the enemy
+    * @return The y-coordinate of the center of the enemy
+    */
+   public int getYCenter(int index)
+   {
+      return ys[index] + SIZE / 2;
+   }
+
+   /**
+    * Reports whether an enemy is currently tagged
+    *
+    * @param index The index of the enemy
+    * @return True if the enemy is tagged, false otherwise
+    */
+   public boolean isTagged(int index)
+   {
+      return (tagged[index >> 6] & 1L << index) != 0;
+   }
+
+   /**
+    * Reports whether an enemy has special significance in the game, such
+    * as higher point rewards
+    *
+    * @param index The index of the enemy
+    * @return True if the enemy is a special enemy, false otherwise
+    */
+   public boolean isSpecialEnemy(int index)
+   {
+      return (special[index >> 6] & 1L << index) != 0;
+   }
+
+   /**
+    * Gets the x-coordinate at which to draw an enemy, partway between its
+    * position before the last tick and its current position
+    *
+    * @param index The index of the enemy
+    * @param alpha How far between the previous and current position to
+    *              draw the enemy, from 0 to 1
+    * @return The x-coordinate to draw the enemy at
+    */
+   public double getRenderX(int index, double alpha)
+   {
+      return previousXs[index] + (xs[index] - previousXs[index]) * alpha;
+   }
+
+   /**
+    * Gets the y-coordinate at which to draw an enemy, partway between its
+    * position before the last tick and its current position
+    *
+    * @param index The index of the enemy
+    * @param alpha How far between the previous and current position to
+    *              draw the enemy, from 0 to 1
+    * @return The y-coordinate to draw the enemy at
+    */
+   public double getRenderY(int index, double alpha)
+   {
+      return previousYs[index] + (ys[index] - previousYs[index]) * alpha;
+   }
+
+   /**
+    * Records the current position of every enemy as the starting point
+    * for drawing in-between frames during the next tick
+    */
+   public void savePositions()
+   {
+      System.arraycopy(xs, 0, previousXs, 0, count);
+      System.arraycopy(ys, 0, previousYs, 0, count);
+   }
+
+
+   /**
+    * Bounces every enemy around the screen by one step. Special enemies
+    * also turn at random.
+    */
+   public void moveAll()
+   {
+      drawTurns();
+
+      if(isParallel())
+         IntStream.range(0, chunks()).parallel().forEach(chunk ->
+            moveRange(chunk * CHUNK_SIZE,
+                      Math.min(count, (chunk + 1) * CHUNK_SIZE)));
+      else
+         moveRange(0, count);
+   }
+
+   /**
+    * Decides which special enemies turn this step, in index order
+    */
+   private void drawTurns()
+   {
+      for(int word = 0; word < words(count); word++)
+      {
+         long bits = special[word];
+         while(bits != 0)
+         {
+            int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+
+            if(((int) (random.nextDouble() * SPECIAL_MOVE_PROBABILITY)) ==
+               1)
+               turns[i] = TURN_X;
+            else if(((int) (random.nextDouble() *
+                            SPECIAL_MOVE_PROBABILITY)) == 1)
+               turns[i] = TURN_Y;
+            else
+               turns[i] = NO_TURN;
+         }
+      }
+   }
+
+   /**
+    * Moves a run of consecutive enemies by one step
+    *
+    * @param from The index of the first enemy to move
+    * @param to One past the index of the last enemy to move
+    */
+   private void moveRange(int from, int to)
+   {
+      for(int i = from; i < to; i++)
+      {
+         xs[i] += xVels[i];
+         ys[i] += yVels[i];
+
+         if(turns[i] == TURN_X)
+            xVels[i] = -xVels[i];
+         else if(turns[i] == TURN_Y)
+            yVels[i] = -yVels[i];
+
+         if(xVels[i] < 0 && xs[i] <= 0 || xVels[i] > 0 && xs[i] >= LIMIT)
+            xVels[i] = -xVels[i];
+         if(yVels[i] < 0 && ys[i] <= 0 || yVels[i] > 0 && ys[i] >= LIMIT)
+            yVels[i] = -yVels[i];
+      }
+   }
+
+   /**
+    * Works out, for every enemy, the zone multiplier it would score if it
+    * were tagged where it stands: +1 for each cobble zone and -1 for each
+    * hay zone its center lies in
+    *
+    * @param zones The zones of the round
+    */
+   public void classifyZones(ZoneModel[] zones)
+   {
+      int[] zoneXs = new int[zones.length];
+      int[] zoneYs = new int[zones.length];
+      int[] zoneValues = new int[zones.length];
+      for(int z = 0; z < zones.length; z++)
+      {
+         zoneXs[z] = zones[z].getX();
+         zoneYs[z] = zones[z].getY();
+         zoneValues[z] = zones[z].isHayZone() ? -1 : 1;
+      }
+
+      if(isParallel())
+         IntStream.range(0, chunks()).parallel().forEach(chunk ->
+            classifyRange(chunk * CHUNK_SIZE,
+                          Math.min(count, (chunk + 1) * CHUNK_SIZE),
+                          zoneXs, zoneYs, zoneValues));
+      else
+         classifyRange(0, count, zoneXs, zoneYs, zoneValues);
+   }
+
+   /**
+    * Classifies a run of consecutive enemies against a snapshot of the
+    * zones
+    *
+    * @param from The index of the first enemy to classify
+    * @param to One past the index of the last enemy to classify
+    * @param zoneXs The x-coordinate of each zone
+    * @param zoneYs The y-coordinate of each zone
+    * @param zoneValues The multiplier of each zone, +1 or -1
+    */
+   private void classifyRange(int from, int to, int[] zoneXs,
+                              int[] zoneYs, int[] zoneValues)
+   {
+      for(int i = from; i < to; i++)
+      {
+         int xCenter = xs[i] + SIZE / 2;
+         int yCenter = ys[i] + SIZE / 2;
+         int zoneMultiplier = 0;
+
+         for(int z = 0; z < zoneXs.length; z++)
+            if(xCenter > zoneXs[z] && xCenter < zoneXs[z] + ZONE_SIZE &&
+               yCenter > zoneYs[z] && yCenter < zoneYs[z] + ZONE_SIZE)
+               zoneMultiplier += zoneValues[z];
+
+         zoneMultipliers[i] = zoneMultiplier;
+      }
+   }
+
+   /**
+    * Gets the number of chunks the enemies are split into when updated in
+    * parallel
+    *
+    * @return The number of chunks
+    */
+   private int chunks()
+   {
+      return (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+   }
+
+   /**
+    * Jumps an enemy to where the given number of moves would leave it, in
+    * constant time. Special enemies also turn at random while moving;
+    * rather than replaying those turns they are given a random heading,
+    * which after many moves is what they would have anyway.
+    *
+    * @param index The index of the enemy
+    * @param steps The number of moves to skip ahead
+    */
+   public void advance(int index, long steps)
+   {
+      int x = xs[index];
+      int y = ys[index];
+
+      xs[index] = BounceSolver.positionAfter(x, xVels[index], LIMIT, steps);
+      xVels[index] = BounceSolver.velocityAfter(x, xVels[index], LIMIT,
+                                                steps);
+      ys[index] = BounceSolver.positionAfter(y, yVels[index], LIMIT, steps);
+      yVels[index] = BounceSolver.velocityAfter(y, yVels[index], LIMIT,
+                                                steps);
+
+      if(isSpecialEnemy(index) && steps > 0)
+      {
+         if(random.nextDouble() < 0.5 && xs[index] > 0 &&
+            xs[index] < LIMIT)
+            xVels[index] = -xVels[index];
+         if(random.nextDouble() < 0.5 && ys[index] > 0 &&
+            ys[index] < LIMIT)
+            yVels[index] = -yVels[index];
+      }
+   }
+
+
+   /**
+    * Marks an enemy as tagged and increments the number of enemies tagged
+    *
+    * @param index The index of the enemy
+    * @return The multiplier associated with the zone(s) the enemy was in
+    * when the zones were last classified, +1/-1 per zone
+    */
+   public int handleCollision(int index)
+   {
+      tagged[index >> 6] |= 1L << index;
+      numTagged++;
+
+      return zoneMultipliers[index];
+   }
+
+   /**
+    * Gets the zone multiplier an enemy would score if tagged, as of the
+    * last call to classifyZones
+    *
+    * @param index The index of the enemy
+    * @return The multiplier of the zone(s) the enemy is in, +1/-1 per zone
+    */
+   public int getZoneMultiplier(int index)
+   {
+      return zoneMultipliers[index];
+   }
+
+   /**
+    * Determines of all enemies have been tagged and therefore need to be
+    * reset to an untagged state
+    *
+    * @return True if all of the enemies have been tagged, false otherwise
+    */
+   public boolean needToResetTags()
+   {
+      return numTagged == count;
+   }
+
+   /**
+    * Resets the "tag" status of every enemy
+    */
+   public void unTagAll()
+   {
+      Arrays.fill(tagged, 0L);
+      numTagged = 0;
+   }
+
+   /**
+    * Writes the position, heading and tag of every enemy to a snapshot;
+    * which enemies are special never changes, so it is left out
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeVarint(count);
+      for(int i = 0; i < count; i++)
+      {
+         out.writeSigned(xs[i]);
+         out.writeSigned(ys[i]);
+         out.writeSigned(xVels[i]);
+         out.writeSigned(yVels[i]);
+      }
+      for(int i = 0; i < words(count); i++)
+         out.writeVarint(tagged[i]);
+   }
+
+   /**
+    * Puts every enemy back as it was in a snapshot of the same round,
+    * with nothing to draw in between; the zone multipliers are left for
+    * classifyZones to work out again
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon or holds a
+    *                     different number of enemies
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      if(in.readVarint() != count)
+         throw new IOException("the snapshot is of a different round");
+
+      for(int i = 0; i < count; i++)
+      {
+         xs[i] = (int) in.readSigned();
+         ys[i] = (int) in.readSigned();
+         xVels[i] = (int) in.readSigned();
+         yVels[i] = (int) in.readSigned();
+      }
+      numTagged = 0;
+      for(int i = 0; i < words(count); i++)
+      {
+         tagged[i] = in.readVarint();
+         numTagged += Long.bitCount(tagged[i]);
+      }
+      savePositions();
+   }
+
+
+   /**
+    * Gets the number of 64-bit words needed for a bitset of enemies
+    *
+    * @param capacity The number of enemies
+    * @return The number of words
+    */
+   private static int words(int capacity)
+   {
+      return (capacity + 63) >> 6;
+   }
+
+   /**
+    * Grows every column so that the given number of enemies fit
+    *
+    * @param capacity The new number of enemies the store can hold
+    */
+   private void grow(int capacity)
+   {
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      xVels = Arrays.copyOf(xVels, capacity);
+      yVels = Arrays.copyOf(yVels, capacity);
+      previousXs = Arrays.copyOf(previousXs, capacity);
+      previousYs = Arrays.copyOf(previousYs, capacity);
+      turns = Arrays.copyOf(turns, capacity);
+      zoneMultipliers = Arrays.copyOf(zoneMultipliers, capacity);
+      tagged = Arrays.copyOf(tagged, words(capacity));
+      special = Arrays.copyOf(special, words(capacity));
+   }
+}
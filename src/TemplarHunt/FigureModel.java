@@ -0,0 +1,175 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+/**
+ * Pure-Java state of a figure on the playfield: its position and size,
+ * along with the collision test shared by all figures. Nothing in this
+ * class (or its children) depends on JavaFX, so a round can be simulated
+ * without a window.
+ *
+ * @author Devon Lee
+ */
+public class FigureModel
+{
+   protected int x, y;
+   protected int width, height;
+   protected int previousX, previousY;
+
+   /**
+    * Basic parameterized constructor to specify starting location and size
+    *
+    * @param startX beginning x location
+    * @param startY beginning y location
+    * @param width width of object
+    * @param height height of object
+    */
+   public FigureModel(int startX, int startY, int width, int height)
+   {
+      x = startX;
+      y = startY;
+      previousX = startX;
+      previousY = startY;
+      this.width = width;
+      this.height = height;
+   }
+
+
+   /**
+    * Gets current x value of the figure
+    *
+    * @return The x-coordinate of the figure
+    */
+   public int getX()
+   {
+      return x;
+   }
+
+   /**
+    * Gets current y value of the figure
+    *
+    * @return The y-coordinate of the figure
+    */
+   public int getY()
+   {
+      return y;
+   }
+
+   /**
+    * Gets the width of the figure
+    *
+    * @return The width of the figure
+    */
+   public int getWidth()
+   {
+      return width;
+   }
+
+   /**
+    * Gets the height of the figure
+    *
+    * @return The height of the figure
+    */
+   public int getHeight()
+   {
+      return height;
+   }
+
+
+   /**
+    * Gets the x-coordinate at which to draw the figure, partway between
+    * its position before the last tick and its current position. Jumps
+    * wider than the figure itself (wrapping around the edge of the
+    * playfield) are not blended.
+    *
+    * @param alpha How far between the previous and current position to
+    *              draw the figure, from 0 to 1
+    * @return The x-coordinate to draw the figure at
+    */
+   public double getRenderX(double alpha)
+   {
+      if(Math.abs(x - previousX) > width)
+         return x;
+      return previousX + (x - previousX) * alpha;
+   }
+
+   /**
+    * Gets the y-coordinate at which to draw the figure, partway between
+    * its position before the last tick and its current position
+    *
+    * @param alpha How far between the previous and current position to
+    *              draw the figure, from 0 to 1
+    * @return The y-coordinate to draw the figure at
+    */
+   public double getRenderY(double alpha)
+   {
+      if(Math.abs(y - previousY) > height)
+         return y;
+      return previousY + (y - previousY) * alpha;
+   }
+
+   /**
+    * Records the current position as the starting point for drawing
+    * in-between frames during the next tick
+    */
+   public void savePosition()
+   {
+      previousX = x;
+      previousY = y;
+   }
+
+   /**
+    * Writes the position of the figure to a snapshot
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeSigned(x);
+      out.writeSigned(y);
+   }
+
+   /**
+    * Puts the figure back where it was in a snapshot, with nothing to
+    * draw in between
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      x = (int) in.readSigned();
+      y = (int) in.readSigned();
+      savePosition();
+   }
+
+
+   /**
+    * Generic move method; only changes x and y
+    *
+    * @param deltaX change in x
+    * @param deltaY change in y
+    */
+   public void move(int deltaX, int deltaY)
+   {
+      x += deltaX;
+      y += deltaY;
+   }
+
+   /**
+    * Determines if two figures collided
+    *
+    * @param otherFig The figure that is being checked for a collision
+    * @return True if the objects overlap, false otherwise
+    */
+   public boolean collidedWith(FigureModel otherFig)
+   {
+      if(otherFig == null)
+         return false;
+
+      return (x + width) >= otherFig.x &&
+             (otherFig.x + otherFig.width) >= x &&
+             (y + height) >= otherFig.y &&
+             (otherFig.y + otherFig.height) >= y;
+   }
+}
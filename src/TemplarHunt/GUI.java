@@ -1,23 +1,19 @@
 package TemplarHunt;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
-import static TemplarHunt.GameEngine.IMMUNITY_TIME;
-import static TemplarHunt.PFigureList.NUM_ZONES;
-
 /**
  * This class handles the interaction of the elements of the GUI that make
  * up the game, including collisions, moving elements around, and
@@ -27,11 +23,33 @@ import static TemplarHunt.PFigureList.NUM_ZONES;
  */
 public class GUI extends Application
 {
-   public static final int STAGE_SIZE = 816;
-   public static final int NUM_ROUNDS = 7;
+   public static final int STAGE_SIZE = GameWorld.STAGE_SIZE;
+   public static final int NUM_ROUNDS = GameEngine.NUM_ROUNDS;
+
+   private static final int GAME_SPEED = GameWorld.TICK_MILLIS;
+
+   // Command-line flag that draws rounds on a single canvas
+   private static final String CANVAS_FLAG = "--canvas";
+
+   // Command-line flag that lets the greedy bot play game after game, for
+   // soak tests
+   private static final String BOT_FLAG = "--bot";
 
-   private static final int GAME_SPEED = 20;
-   private static final int PLAYER_MOVE_DISTANCE = 50;
+   // Command-line flag, followed by a file, that plays a recorded game
+   private static final String REPLAY_FLAG = "--replay";
+
+   // Command-line flag that records each game played to the replay folder
+   private static final String RECORD_FLAG = "--record";
+
+   // Command-line flag that prints what the image cache takes up, how
+   // quickly sound effects started, how the bot's games went, and where
+   // replays were saved
+   private static final String VERBOSE_FLAG = "--verbose";
+   private static final int REPLAY_SKIP_TICKS = 5000 / GameWorld.TICK_MILLIS;
+   private static final long NANOS_PER_TICK = GameWorld.TICK_MILLIS *
+                                              1000000L;
+   private static final int PLAYER_MOVE_DISTANCE =
+                            PlayerModel.MOVE_DISTANCE;
 
    // Game State Identifiers
    private static final char TITLE = 'T';
@@ -41,19 +59,10 @@ public class GUI extends Application
    private static final char END = 'E';
    private static final char QUIT = 'Q';
 
-   // Sound Effect File Paths
-   private static final String SOUND_EFFECT_FOLDER_FILE_PATH =             //TODO Change path here to make sound effects work!
-                               "/Users/Devon/Website/Portfolio/" +
-                               "TemplarHunt/Sound Effects/";
-   private static final String GOOD_COLLISION_SOUND = "HitConfirm.wav";
-   private static final String BAD_COLLISION_SOUND = "Buzzer.wav";
-   private static final String WIN_ROUND_SOUND = "WinRound.wav";
-   private static final String LOSE_ROUND_SOUND = "LoseRound.wav";
-
    private Stage primaryStage;
    private final Pane rootPane = new Pane();
    private final Pane menuPane = new Pane();
-   private final Pane[] roundPanes = new Pane[NUM_ROUNDS];
+   private final ArrayList<Pane> roundPanes = new ArrayList<>();
 
    private TitleScreen titleScreen;
    private PauseScreen pauseScreen;
@@ -67,10 +76,27 @@ public class GUI extends Application
 
    // Game Components
    private HighScoresData highScoresData;
+   private final GameSession session = new GameSession();
    private GameEngine engine;
    private PFigureList figs;
-   private Timeline animation;
+   private EndlessMode endless;
+   private GameLoop animation;
+   private SoundMixer sounds;
    private boolean gameMuted = false;
+   private boolean useCanvas = false;
+   private boolean verbose = false;
+   private boolean recording = false;
+   private PlayerInput bot = null;
+   private ReplayRecorder recorder = null;
+   private Replay replay = null;
+   private ReplayPlayer replaySeeker;
+   private ReplayBar replayBar;
+   private int replayNext = 0;
+   private boolean replayHeld = false;
+   private boolean replayEnded = false;
+
+   // Ticks played in the current game; the clocks of its rounds count them
+   private long gameTicks = 0;
 
    // Game State Logic Variables
    private char gameState;
@@ -81,6 +107,10 @@ public class GUI extends Application
 
    boolean hasEnteredName = false;
 
+   // Decided when the end screen is shown, so a leaderboard that finishes
+   // loading afterwards cannot change what the end screen asks for
+   private boolean madeHighScores = false;
+
    private Scanner jin = new Scanner(System.in);
 
    /**
@@ -92,10 +122,35 @@ public class GUI extends Application
    public void start(Stage primaryStage)
    {
       this.primaryStage = primaryStage;
+      useCanvas = getParameters().getRaw().contains(CANVAS_FLAG);
+      verbose = getParameters().getRaw().contains(VERBOSE_FLAG);
+      recording = getParameters().getRaw().contains(RECORD_FLAG);
+      if(getParameters().getRaw().contains(BOT_FLAG))
+         bot = new GreedyBot();
+      readReplay(getParameters().getRaw());
+      sounds = new SoundMixer();
+      sounds.start();
       preGameSetup();
+      if(replay != null)
+      {
+         replaySeeker = new ReplayPlayer(replay);
+         replayBar = new ReplayBar(rootPane, replay.getFinalTick(),
+                                   this::seekReplay);
+      }
 
-      EventHandler<ActionEvent> eventHandler = e ->
+      Runnable tick = () ->
       {
+         if(replay != null)
+         {
+            if(replayHeld)
+               return;
+            feedReplay();
+            if(replayEnded)
+               return;
+         }
+         else if(bot != null)
+            driveBot();
+
          if(gameState == IN_GAME)
             handleRoundMechanics();
          else if(gameState == PAUSED)
@@ -106,28 +161,66 @@ public class GUI extends Application
             handleTitleScreenMechanics();
          else if(gameState == QUIT)
             quitProgram();
+
+         if(replayBar != null)
+            replayBar.update(gameTicks, engine.getRoundID(), replayHeld);
       };
 
-      animation = new Timeline(
-                  new KeyFrame(Duration.millis(GAME_SPEED), eventHandler));
-      animation.setCycleCount(Timeline.INDEFINITE);
+      animation = new GameLoop(GAME_SPEED, tick, this::renderRound);
       animation.play();
 
       primaryStage.addEventFilter(KeyEvent.KEY_PRESSED, e ->
       {
-         if(gameState == IN_GAME)
-            handleRoundControls(e.getCode());
-         else if(gameState == BETWEEN_ROUNDS)
-            handlePostRoundControls(e.getCode());
-         else if(gameState == PAUSED)
-            handlePauseScreenControls(e.getCode());
-         else if(gameState == TITLE)
-            handleTitleScreenControls(e.getCode());
-         else if(gameState == END)
-            handleEndScreenControls(e.getCode());
+         if(replay == null)
+            handleKey(e.getCode());
+         else
+         {
+            handleReplayControls(e.getCode());
+            e.consume();
+         }
       });
    }
 
+   /**
+    * Calls the controls of the current screen for a key-press, recording
+    * the keys pressed during a game
+    *
+    * @param cmd The key-press to be evaluated
+    */
+   private void handleKey(KeyCode cmd)
+   {
+      boolean playing = gameState == IN_GAME || gameState == PAUSED ||
+                        gameState == BETWEEN_ROUNDS;
+      if(recorder != null && playing)
+         recorder.record(gameTicks, cmd.getCode());
+
+      if(gameState == IN_GAME)
+         handleRoundControls(cmd);
+      else if(gameState == BETWEEN_ROUNDS)
+         handlePostRoundControls(cmd);
+      else if(gameState == PAUSED)
+         handlePauseScreenControls(cmd);
+      else if(gameState == TITLE)
+         handleTitleScreenControls(cmd);
+      else if(gameState == END)
+         handleEndScreenControls(cmd);
+
+      if(recorder != null && playing && gameState != IN_GAME &&
+         gameState != PAUSED && gameState != BETWEEN_ROUNDS)
+         finishRecording();
+   }
+
+   /**
+    * Ends the recording of the current game and saves it
+    */
+   private void finishRecording()
+   {
+      recorder.finish(gameTicks, engine.getTotalScore(),
+                      engine.getRoundID());
+      recorder.save(verbose);
+      recorder = null;
+   }
+
    /**
     * Sets stage, panes, and menu screens that only need to be set once per
     * run of the program
@@ -141,7 +234,10 @@ public class GUI extends Application
 
       rootPane.getChildren().add(menuPane);
 
+      // Loads in the background; the screens show placeholders until the
+      // scores arrive
       highScoresData = new HighScoresData();
+      highScoresData.start();
 
       titleScreen = new TitleScreen(menuPane);
       titleScreen.updateHighScores(highScoresData);
@@ -152,6 +248,10 @@ public class GUI extends Application
       endScreen = new EndScreen(highScoresData, menuPane);
       endScreen.hide();
 
+      highScoresData.setOnChange(() ->
+                     Platform.runLater(this::refreshHighScores));
+      refreshHighScores();
+
       gameState = TITLE;
    }
 
@@ -161,14 +261,23 @@ public class GUI extends Application
     */
    private void gameSetUp()
    {
-      for(int i = 0; i < roundPanes.length; i++)
-      {
-         roundPanes[i] = new Pane();
-         rootPane.getChildren().add(roundPanes[i]);
-      }
+      rootPane.getChildren().removeAll(roundPanes);
+      roundPanes.clear();
+      for(int i = 0; i < NUM_ROUNDS; i++)
+         addRoundPane();
       gameMuted = false;
       hasEnteredName = false;
       postRoundScreen.hide();
+
+      // Endless mode is left unrecorded since its rounds end when the
+      // frame rate drops, which no replay can repeat
+      session.reset(replay != null ? replay.getSeed()
+                                   : GameSession.newSeed());
+      gameTicks = 0;
+      if(recording && endless == null && replay == null && bot == null)
+         recorder = new ReplayRecorder(session.getSeed());
+      if(replayBar != null)
+         replayBar.toFront();
       roundSetup();
    }
 
@@ -178,18 +287,31 @@ public class GUI extends Application
     */
    private void roundSetup()
    {
-      engine = new GameEngine();
+      engine = new GameEngine(session, newTickClock(), endless);
+      int roundID = engine.getRoundID();
 
+      if(endless != null && roundID > 1)
+         roundPanes.get(roundID - 2).getChildren().clear();
+      while(roundPanes.size() < roundID)
+         addRoundPane();
       getRoundPane().setVisible(true);
 
-      figs = new PFigureList(engine.getRoundID(), getRoundPane());
-
-      getRoundPane().getChildren().add(figs.getPlayer());
-      getRoundPane().getChildren().add(figs.getScoreboard());
-      for(int i = 0; i < figs.getNumEnemies(); i++)
-         getRoundPane().getChildren().add(figs.getEnemy(i));
-      for(int i = 0; i < NUM_ZONES; i++)
-         getRoundPane().getChildren().add(figs.getZones()[i]);
+      GameWorld world;
+      if(endless == null)
+         world = new GameWorld(roundID, session.newRoundRandom(),
+                               session.getZonePattern());
+      else
+      {
+         world = new GameWorld(roundID,
+                               EndlessMode.getNumEnemies(roundID),
+                               EndlessMode.getNumSpecialEnemies(roundID),
+                               session.newRoundRandom(),
+                               session.getZonePattern());
+         endless.startRound(world.getNumEnemies());
+      }
+      figs = new PFigureList(world, getRoundPane(), useCanvas);
+      if(verbose)
+         System.out.println("Round " + roundID + ": " + ImageCache.report());
 
       pauseScreen.setPane(getRoundPane());
       pauseScreen.addElementsToCurrentPane();
@@ -202,6 +324,17 @@ public class GUI extends Application
       animation.play();
    }
 
+   /**
+    * Creates a clock for a round that counts the ticks of the game, so
+    * that a replay of the game keeps the same time
+    *
+    * @return A stopped clock
+    */
+   private GameClock newTickClock()
+   {
+      return new GameClock(() -> gameTicks * NANOS_PER_TICK);
+   }
+
    /**
     * Called every cycle of the animation, this method contains the logic
     * for what should be done when the user is viewing the title screen
@@ -230,63 +363,91 @@ public class GUI extends Application
     */
    private void handleRoundMechanics()
    {
-      if(engine.sufficientCoolDownTime())
-      {
-         for(int i = 0; i < figs.getNumEnemies(); i++)
-            if(figs.getPlayer().collidedWith(figs.getEnemy(i)) &&
-               !figs.getEnemy(i).isTagged())
-            {
-               int zoneMulti = figs.getEnemy(i).handleCollision(
-                                                figs.getZones());
-               if(zoneMulti > 0)
-               {
-                  playSound(GOOD_COLLISION_SOUND);
-                  engine.resetCoolDownTimer();
-               }
-               else if(zoneMulti < 0)
-               {
-                  playSound(BAD_COLLISION_SOUND);
-                  figs.getPlayer().paralyze();
-                  engine.resetCoolDownTimer(IMMUNITY_TIME);
-               }
-               else
-                  engine.resetCoolDownTimer();
-               engine.scoreEnemyCollision(zoneMulti,
-                      figs.getEnemy(i).isSpecialEnemy());
-            }
-
-         if(figs.getPlayer().collidedWith(figs.getScoreboard()))
-         {
-            engine.scoreSignCollision();
-            engine.resetCoolDownTimer();
-         }
-
-         if(Enemy.needToResetTags() && engine.sufficientCoolDownTime())
-         {
-            for(int i = 0; i < Enemy.getNumFigs(); i++)
-               figs.getEnemy(i).unTag();
-            engine.resetCoolDownTimer();
-         }
-      }
+      GameWorld world = figs.getWorld();
+      world.handleCollisions(engine);
+      for(int i = 0; i < world.getGoodCollisions(); i++)
+         playSound(SoundMixer.GOOD_COLLISION);
+      for(int i = 0; i < world.getBadCollisions(); i++)
+         playSound(SoundMixer.BAD_COLLISION);
 
-      figs.hideMoveDrawAll(engine.getTimeRemaining(),
-                           engine.getRoundScore(),
-                           engine.getTotalScore(),
-                           highScoresData.getHighestScore());
+      figs.moveAll();
+      gameTicks++;
 
-      if(engine.roundOver() || endRoundManually)
+      if(engine.roundOver() || endRoundManually ||
+         endless != null && engine.lastRound())
       {
          endRoundManually = false;
          gameState = BETWEEN_ROUNDS;
+         if(endless != null)
+            finishEndlessRound();
          if(engine.passedLevel() || engine.lastRound())
-            playSound(WIN_ROUND_SOUND);
+            playSound(SoundMixer.WIN_ROUND);
          else
-            playSound(LOSE_ROUND_SOUND);
-         postRoundScreen.updateScores(engine.getRoundID(),
-                                      engine.getRoundScore(),
-                                      engine.getTotalScore(),
-                                      engine.passedLevel());
-         postRoundScreen.addElementsToCurrentPane();
+            playSound(SoundMixer.LOSE_ROUND);
+         addRoundResults();
+      }
+
+      if(recorder != null &&
+         gameTicks % ReplayRecorder.SNAPSHOT_TICKS == 0)
+         recorder.snapshot(gameTicks,
+                           GameSnapshot.capture(session, engine, world,
+                                                gameTicks,
+                                                gameState != IN_GAME));
+   }
+
+   /**
+    * Puts the results of the round that just ended on its pane, for the
+    * end-of-round screen
+    */
+   private void addRoundResults()
+   {
+      postRoundScreen.updateScores(engine.getRoundID(),
+                                   engine.getRoundScore(),
+                                   engine.getTotalScore(),
+                                   engine.getScoreThreshold(),
+                                   engine.passedLevel(),
+                                   engine.lastRound());
+      postRoundScreen.addElementsToCurrentPane();
+   }
+
+   /**
+    * Ends the measurement of a round of endless mode and, if frames could
+    * no longer keep up, reports the most enemies that could be drawn at
+    * the target frame rate
+    */
+   private void finishEndlessRound()
+   {
+      endless.endRound();
+      if(engine.lastRound())
+      {
+         postRoundScreen.setEndText(endless.getReport());
+         System.out.println(endless.getReport());
+      }
+      else
+         postRoundScreen.setEndText(null);
+   }
+
+   /**
+    * Called every frame of the animation, this method draws the figures of
+    * the round while the user is actively playing the game
+    *
+    * @param alpha How far the frame lies between the previous tick of game
+    *              logic and the next, from 0 to 1
+    */
+   private void renderRound(double alpha)
+   {
+      if(gameState == IN_GAME)
+      {
+         if(endless != null)
+            endless.recordFrame(animation.getFrameLength());
+
+         // A replay held still shows the last tick, not a blend of two
+         if(replayHeld)
+            alpha = 1;
+         figs.hideDrawAll(alpha, engine.getTimeRemaining(),
+                          engine.getRoundScore(),
+                          engine.getTotalScore(),
+                          highScoresData.getHighestScore());
       }
    }
 
@@ -319,7 +480,9 @@ public class GUI extends Application
       postRoundScreen.updateScores(engine.getRoundID(),
                                    engine.getRoundScore(),
                                    engine.getTotalScore(),
-                                   engine.passedLevel());
+                                   engine.getScoreThreshold(),
+                                   engine.passedLevel(),
+                                   engine.lastRound());
 
       if(alreadyPressedT)
          postRoundScreen.showConfirmBox(TITLE);
@@ -327,8 +490,6 @@ public class GUI extends Application
          postRoundScreen.showConfirmBox(QUIT);
       else
          postRoundScreen.hideConfirmBox();
-
-      figs.resetFigCount();
    }
 
    /**
@@ -348,6 +509,217 @@ public class GUI extends Application
       Platform.exit();
    }
 
+   /**
+    * Presses the keys the bot would press this tick: its moves during a
+    * round, at the rate a held key repeats, and the keys that start the
+    * next round or game on the screens in between. The bot never enters a
+    * name for the high scores.
+    */
+   private void driveBot()
+   {
+      if(gameState == IN_GAME)
+      {
+         if(gameTicks % PlayerInput.TICKS_PER_MOVE != 0)
+            return;
+
+         switch(bot.nextMove(figs.getWorld(), engine))
+         {
+            case PlayerInput.UP:
+               handleKey(KeyCode.UP);
+               break;
+            case PlayerInput.DOWN:
+               handleKey(KeyCode.DOWN);
+               break;
+            case PlayerInput.LEFT:
+               handleKey(KeyCode.LEFT);
+               break;
+            case PlayerInput.RIGHT:
+               handleKey(KeyCode.RIGHT);
+         }
+      }
+      else if(gameState == BETWEEN_ROUNDS)
+         handleKey(KeyCode.ENTER);
+      else if(gameState == END)
+      {
+         if(verbose)
+            System.out.println("The bot finished a game with " +
+                               engine.getTotalScore() + " points");
+         hasEnteredName = true;
+         handleKey(KeyCode.P);
+      }
+      else if(gameState == TITLE)
+         handleKey(KeyCode.P);
+   }
+
+   /**
+    * Reads the replay named after the replay flag, if there is one
+    *
+    * @param args The command-line arguments
+    */
+   private void readReplay(List<String> args)
+   {
+      int flag = args.indexOf(REPLAY_FLAG);
+      if(flag < 0 || flag + 1 >= args.size())
+         return;
+
+      try
+      {
+         replay = Replay.read(Paths.get(args.get(flag + 1)));
+      }
+      catch(IOException e)
+      {
+         System.out.println("The replay could not be read: " + e);
+      }
+   }
+
+   /**
+    * Presses the keys of the replay that were pressed on this tick of the
+    * recorded game, starting the game from the title screen first. Keys
+    * that left the game early are skipped, so once the keys run out the
+    * player can take over from where the recording stopped.
+    */
+   private void feedReplay()
+   {
+      if(gameState == TITLE)
+         handleKey(KeyCode.P);
+
+      while(replayNext < replay.size() &&
+            replay.getTick(replayNext) == gameTicks)
+      {
+         int code = replay.getKeyCode(replayNext++);
+         for(KeyCode cmd : KeyCode.values())
+            if(cmd.getCode() == code)
+            {
+               if(!GameKeys.leavesGame(code))
+                  handleKey(cmd);
+               break;
+            }
+      }
+
+      if(replayNext == replay.size() &&
+         (gameState != IN_GAME || gameTicks >= replay.getFinalTick()))
+      {
+         System.out.println("Replay over: " + engine.getTotalScore() +
+                            " points in round " + engine.getRoundID());
+         if(replay.isFinished())
+            System.out.println("Recorded: " + replay.getFinalScore() +
+                               " points in round " +
+                               replay.getFinalRound());
+         replayEnded = true;
+         replayHeld = true;
+         replayBar.update(gameTicks, engine.getRoundID(), true);
+      }
+   }
+
+   /**
+    * Calls appropriate functions depending on the key pressed while a
+    * replay plays: space holds the replay still or plays it on, from the
+    * start once it is over, the left and right arrow keys skip back and
+    * ahead, and Q quits
+    *
+    * @param cmd The key-press to be evaluated
+    */
+   private void handleReplayControls(KeyCode cmd)
+   {
+      switch(cmd)
+      {
+         case SPACE:
+            if(replayEnded)
+            {
+               seekReplay(0);
+               replayHeld = false;
+            }
+            else
+               replayHeld = !replayHeld;
+            replayBar.update(gameTicks, engine.getRoundID(), replayHeld);
+            animation.play();
+            break;
+         case LEFT:
+            seekReplay(gameTicks - REPLAY_SKIP_TICKS);
+            break;
+         case RIGHT:
+            seekReplay(gameTicks + REPLAY_SKIP_TICKS);
+            break;
+         case Q:
+            previousGameState = gameState;
+            quitProgram();
+      }
+   }
+
+   /**
+    * Moves the replay to a tick: the game is played to that tick without
+    * a window from the nearest snapshot before it, then put into the
+    * round on screen, which is only set up again if the replay moves to
+    * another round or out of one that is over
+    *
+    * @param tick The tick to move to
+    */
+   private void seekReplay(long tick)
+   {
+      if(gameState == TITLE)
+         handleKey(KeyCode.P);
+
+      try
+      {
+         replaySeeker.seek(tick);
+         GameSnapshot snapshot =
+                      new GameSnapshot(replaySeeker.getGame().snapshot());
+         replayNext = replaySeeker.getNextKey();
+
+         endScreen.hide();
+         pauseScreen.hide();
+         postRoundScreen.hide();
+         snapshot.restoreSession(session);
+         gameTicks = snapshot.getGameTicks();
+         endRoundManually = false;
+
+         if(gameState == IN_GAME && !snapshot.isRoundOver() &&
+            engine.getRoundID() == snapshot.getRoundID())
+         {
+            engine = new GameEngine(session, newTickClock(), endless);
+            engine.start();
+         }
+         else
+         {
+            for(Pane roundPane : roundPanes)
+               roundPane.setVisible(false);
+            roundPanes.get(snapshot.getRoundID() - 1).getChildren().clear();
+            roundSetup();
+         }
+         snapshot.restoreRound(engine, figs.getWorld());
+         figs.getPlayer().draw();
+
+         if(snapshot.isRoundOver())
+         {
+            gameState = BETWEEN_ROUNDS;
+            addRoundResults();
+            postRoundScreen.show();
+         }
+         else
+            gameState = IN_GAME;
+
+         figs.hideDrawAll(1, engine.getTimeRemaining(),
+                          engine.getRoundScore(), engine.getTotalScore(),
+                          highScoresData.getHighestScore());
+         replayEnded = false;
+         replayBar.update(gameTicks, engine.getRoundID(), replayHeld);
+         animation.play();
+      }
+      catch(IOException e)
+      {
+         System.out.println("The replay could not be moved: " + e);
+      }
+   }
+
+   /**
+    * Shows the latest high scores on the screens that list them
+    */
+   private void refreshHighScores()
+   {
+      titleScreen.updateHighScores(highScoresData);
+      endScreen.updateHighScores(highScoresData);
+   }
+
    /**
     * Calls appropriate functions depending on the key pressed on the title
     * screen
@@ -359,13 +731,24 @@ public class GUI extends Application
       switch(cmd)
       {
          case P:
+            endless = null;
             titleScreen.hide();
             gameSetUp();
             getRoundPane().requestFocus();
             break;
+         case E:
+            if(!showInsts && !showCtrls && !showScores)
+            {
+               endless = new EndlessMode();
+               titleScreen.hide();
+               gameSetUp();
+               getRoundPane().requestFocus();
+            }
+            break;
          case ENTER:
             if(!showInsts && !showCtrls && !showScores)
             {
+               endless = null;
                titleScreen.hide();
                gameSetUp();
                getRoundPane().requestFocus();
@@ -411,31 +794,31 @@ public class GUI extends Application
     */
    private void handleRoundControls(KeyCode cmd)
    {
-      switch(cmd)
+      switch(GameKeys.actionOf(cmd.getCode()))
       {
-         case P:
+         case GameKeys.PAUSE:
             engine.pauseTimer();
             gameState = PAUSED;
             break;
-         case M:
+         case GameKeys.MUTE:
             gameMuted = !gameMuted;
             break;
-         case O:
+         case GameKeys.OVERRIDE:
             engine.setOverride();
             break;
-         case U:
+         case GameKeys.ADD_POINTS:
             if(engine.getOverrideStatus())
                engine.addCheatPoints();
             break;
-         case I:
+         case GameKeys.SUBTRACT_POINTS:
             if(engine.getOverrideStatus())
                engine.subtractCheatPoints();
             break;
-         case E:
+         case GameKeys.END_ROUND:
             if(engine.getOverrideStatus())
                endRoundManually = true;
       }
-      if(!figs.getPlayer().isParalyzed())
+      if(!figs.getPlayer().isParalyzed(engine.getGameTime()))
       {
          movePlayer(figs.getPlayer(), cmd);
          figs.getPlayer().toFront();
@@ -450,23 +833,24 @@ public class GUI extends Application
     */
    private void handlePauseScreenControls(KeyCode cmd)
    {
-      switch(cmd)
+      char action = GameKeys.actionOf(cmd.getCode());
+      switch(action)
       {
-         case P:
+         case GameKeys.PAUSE:
             gameState = IN_GAME;
             pauseScreen.hide();
             engine.resumeTimer();
             engine.resetCoolDownTimer();
             animation.play();
             break;
-         case M:
+         case GameKeys.MUTE:
             gameMuted = !gameMuted;
             break;
-         case O:
+         case GameKeys.OVERRIDE:
             engine.setOverride();
             break;
          default:
-            quitControlLogic(cmd);
+            quitControlLogic(action);
       }
 
       if(engine.getOverrideStatus())
@@ -481,10 +865,10 @@ public class GUI extends Application
     */
    private void handlePostRoundControls(KeyCode cmd)
    {
-      switch(cmd)
+      char action = GameKeys.actionOf(cmd.getCode());
+      switch(action)
       {
-         case C:
-         case ENTER:
+         case GameKeys.CONTINUE:
             getRoundPane().setVisible(false);
             postRoundScreen.hide();
             if(engine.passedLevel())
@@ -493,14 +877,16 @@ public class GUI extends Application
             {
                gameState = END;
                getRoundPane().setVisible(false);
-               endScreen.show(highScoresData.isHighScore(
-                              engine.getTotalScore()),
-                              engine.getTotalScore());
+               // Endless mode is a stress test, not a game for the board
+               madeHighScores = endless == null &&
+                                highScoresData.isHighScore(
+                                engine.getTotalScore());
+               endScreen.show(madeHighScores, engine.getTotalScore());
                animation.play();
             }
             break;
-         case O:
-         case E:
+         case GameKeys.OVERRIDE:
+         case GameKeys.END_ROUND:
             if(engine.getOverrideStatus() && !engine.lastRound())
             {
                getRoundPane().setVisible(false);
@@ -509,7 +895,7 @@ public class GUI extends Application
             break;
          default:
             if(engine.passedLevel())
-               quitControlLogic(cmd);
+               quitControlLogic(action);
       }
    }
 
@@ -521,24 +907,23 @@ public class GUI extends Application
     */
    private void handleEndScreenControls(KeyCode cmd)
    {
-      if(hasEnteredName || !highScoresData.isHighScore(
-                            engine.getTotalScore()))
+      if(hasEnteredName || !madeHighScores)
       {
          switch(cmd)
          {
             case ENTER:
             case P:
                endScreen.hide();
-               figs.resetFigCount();
-               engine.resetGame();
+               session.reset();
+               if(endless != null)
+                  endless = new EndlessMode();
                gameSetUp();
                getRoundPane().requestFocus();
                break;
             case T:
                titleScreen.updateHighScores(highScoresData);
                endScreen.hide();
-               figs.resetFigCount();
-               engine.resetGame();
+               session.reset();
                gameState = TITLE;
                break;
             case Q:
@@ -562,19 +947,18 @@ public class GUI extends Application
     * sequence of keys is hit so as to not cause a player to accidently
     * quit during a game
     *
-    * @param cmd The key-press to be evaluated
+    * @param action The action of the key pressed, from GameKeys
     */
-   private void quitControlLogic(KeyCode cmd)
+   private void quitControlLogic(char action)
    {
-      switch(cmd)
+      switch(action)
       {
-         case T:
+         case GameKeys.TO_TITLE:
             if(alreadyPressedT) // Confirm box is showing for title screen
             {
                gameState = TITLE;
                getRoundPane().setVisible(false);
-               figs.resetFigCount();
-               engine.resetGame();
+               session.reset();
                pauseScreen.hide();
                alreadyPressedT = false;
             }
@@ -582,20 +966,19 @@ public class GUI extends Application
                alreadyPressedT = true;
             animation.play();
             break;
-         case Q:
+         case GameKeys.QUIT:
             if(alreadyPressedQ) // Confirm box is showing for quit
                gameState = QUIT;
             else
                alreadyPressedQ = true;
             animation.play();
             break;
-         case Y:
+         case GameKeys.CONFIRM:
             if(alreadyPressedT) // Confirm box is showing for title screen
             {
                gameState = TITLE;
                getRoundPane().setVisible(false);
-               figs.resetFigCount();
-               engine.resetGame();
+               session.reset();
                pauseScreen.hide();
                alreadyPressedT = false;
             }
@@ -603,8 +986,7 @@ public class GUI extends Application
                gameState = QUIT;
             animation.play();
             break;
-         case N:
-         case B:
+         case GameKeys.CANCEL:
             alreadyPressedT = false;
             alreadyPressedQ = false;
             animation.play();
@@ -621,30 +1003,18 @@ public class GUI extends Application
    public void movePlayer(Player player, KeyCode command)
    {
       player.hide();
-      switch(command)
+      switch(GameKeys.moveOf(command.getCode()))
       {
-         case UP:
+         case PlayerInput.UP:
             player.move(0, -PLAYER_MOVE_DISTANCE);
             break;
-         case DOWN:
+         case PlayerInput.DOWN:
             player.move(0, PLAYER_MOVE_DISTANCE);
             break;
-         case LEFT:
+         case PlayerInput.LEFT:
             player.move(-PLAYER_MOVE_DISTANCE, 0);
             break;
-         case RIGHT:
-            player.move(PLAYER_MOVE_DISTANCE, 0);
-            break;
-         case W:
-            player.move(0, -PLAYER_MOVE_DISTANCE);
-            break;
-         case S:
-            player.move(0, PLAYER_MOVE_DISTANCE);
-            break;
-         case A:
-            player.move(-PLAYER_MOVE_DISTANCE, 0);
-            break;
-         case D:
+         case PlayerInput.RIGHT:
             player.move(PLAYER_MOVE_DISTANCE, 0);
       }
       player.draw();
@@ -657,36 +1027,45 @@ public class GUI extends Application
     */
    private Pane getRoundPane()
    {
-      return roundPanes[engine.getRoundID() - 1];
+      return roundPanes.get(engine.getRoundID() - 1);
    }
 
    /**
-    * Plays a sound file from the local drive
-    *
-    * All sounds obtained from the free game sound library of mixkit.com
+    * Adds a pane for one more round on top of the existing ones
+    */
+   private void addRoundPane()
+   {
+      Pane roundPane = new Pane();
+      roundPanes.add(roundPane);
+      rootPane.getChildren().add(roundPane);
+   }
+
+   /**
+    * Asks the mixer to play a sound effect, unless the game is muted
     *
-    * @param soundFileName The name of the file to be played
+    * @param effect The effect to be played, such as
+    *               SoundMixer.GOOD_COLLISION
     */
-   private void playSound(String soundFileName)
+   private void playSound(int effect)
    {
       if(!gameMuted)
-      {
-         String filePath = SOUND_EFFECT_FOLDER_FILE_PATH + soundFileName;
-         try
-         {
-            java.io.File soundFile = new java.io.File(filePath);
-            javax.sound.sampled.AudioInputStream audioIn = javax.sound.
-               sampled.AudioSystem.getAudioInputStream(soundFile);
-            javax.sound.sampled.Clip clip =
-               javax.sound.sampled.AudioSystem.getClip();
-            clip.open(audioIn);
-            clip.start();
-         }
-         catch(Exception e)
-         {
-            System.out.println("A sound effect could not be played.");
-         }
-      }
+         sounds.play(effect);
+   }
+
+   /**
+    * Releases the sound effects and finishes saving the high scores when
+    * the program exits
+    */
+   @Override
+   public void stop()
+   {
+      if(recorder != null)
+         finishRecording();
+      ReplayRecorder.flush();
+      if(verbose)
+         System.out.println(sounds.getReport());
+      sounds.close();
+      highScoresData.flush();
    }
 
 
@@ -694,7 +1073,15 @@ public class GUI extends Application
     * Main method--used mostly for launching program from places that do
     * not fully support JavaFX
     *
-    * @param args Default method for main methods
+    * @param args Default method for main methods; "--canvas" draws each
+    *             round on a single canvas instead of a node per figure,
+    *             "--bot" lets the greedy bot play, "--record" saves a
+    *             replay of each game played, "--replay" followed by a
+    *             file plays a recorded game, with a scrub bar, and
+    *             "--verbose" prints how much memory the images take up,
+    *             how quickly sound effects started playing, the score
+    *             of each game the bot plays, and where each replay was
+    *             saved
     */
    public static void main(String[] args)
    {
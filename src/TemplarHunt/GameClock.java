@@ -0,0 +1,118 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic clock measuring how much game time has passed in a round.
+ * Time only accumulates while the clock is running, so pausing and
+ * resuming loses or gains nothing. The clock is read on demand from a
+ * nanosecond time source rather than counted down by a background thread.
+ *
+ * @author Devon Lee
+ */
+public class GameClock
+{
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   private final LongSupplier timeSource;
+
+   private long elapsedBeforeResume;
+   private long resumedAt;
+   private boolean running = false;
+
+   /**
+    * Creates a stopped clock that reads real time from System.nanoTime
+    */
+   public GameClock()
+   {
+      this(System::nanoTime);
+   }
+
+   /**
+    * Creates a stopped clock that reads time from the given source
+    *
+    * @param timeSource A monotonic source of time in nanoseconds
+    */
+   public GameClock(LongSupplier timeSource)
+   {
+      this.timeSource = timeSource;
+   }
+
+
+   /**
+    * Starts the clock, or resumes it from where it was paused
+    */
+   public void resume()
+   {
+      if(!running)
+      {
+         resumedAt = timeSource.getAsLong();
+         running = true;
+      }
+   }
+
+   /**
+    * Pauses the clock; no time accumulates until it is resumed
+    */
+   public void pause()
+   {
+      if(running)
+      {
+         elapsedBeforeResume += timeSource.getAsLong() - resumedAt;
+         running = false;
+      }
+   }
+
+   /**
+    * Reports whether the clock is currently running
+    *
+    * @return True if the clock is running, false if it is paused
+    */
+   public boolean isRunning()
+   {
+      return running;
+   }
+
+   /**
+    * Writes the state of the clock to a snapshot; only meaningful for a
+    * clock whose time source can be put back where it was, such as one
+    * that counts ticks
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeSigned(elapsedBeforeResume);
+      out.writeSigned(resumedAt);
+      out.writeBoolean(running);
+   }
+
+   /**
+    * Puts the clock back into the state saved in a snapshot
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      elapsedBeforeResume = in.readSigned();
+      resumedAt = in.readSigned();
+      running = in.readBoolean();
+   }
+
+   /**
+    * Gets the amount of game time that has passed, excluding any time the
+    * clock spent paused
+    *
+    * @return The game time in milliseconds
+    */
+   public long getMillis()
+   {
+      long elapsed = elapsedBeforeResume;
+      if(running)
+         elapsed += timeSource.getAsLong() - resumedAt;
+
+      return elapsed / NANOS_PER_MILLI;
+   }
+}
@@ -1,19 +1,19 @@
 package TemplarHunt;
 
-import java.util.Timer;
-
-import static TemplarHunt.GUI.NUM_ROUNDS;
+import java.io.IOException;
 
 /**
  * This class controls all of the non-GUI logic for the game, including the
  * round timer, scoring, and the distinction between rounds. It also
  * records all-time high scores to a file and provides that information in
- * the game.
+ * the game. Everything that lasts from round to round is kept in the
+ * session of the game rather than in the engine of a round.
  *
  * @author Devon Lee
  */
 public class GameEngine
 {
+   public static final int NUM_ROUNDS = 7;
    public static final int[] ROUND_SCORE_THRESHOLDS = new int[]
                                                      {200, 200, 250,
                                                       300, 350, 400,
@@ -22,33 +22,78 @@ public class GameEngine
    private static final int SPECIAL_ENEMY_MULTIPLIER = 2;
    private static final int SIGN_SCORE = 1;
    private static final int CHEAT_POINTS = 10;
-   private static final int ROUND_TIME_SEC = 60;
+   public static final int ROUND_TIME_SEC = 60;
    private static final int SEC_TO_MILLISEC = 1000;
    private static final int COOL_DOWN_TIME = 700;
    public static final int IMMUNITY_TIME = 1500;
 
-   private static int roundID = 0;
-   private static int totalScore = 0;
-
+   private final GameSession session;
+   private final int roundID;
    private int roundScore;
-   private int clock_ms;
    private long coolDownTimer;
 
-   private Timer roundTimer;
-   protected TimerHelper decrementClock;
-   private static boolean cheatModeOverride = false;
+   private final GameClock clock;
+   private final EndlessMode endless;
+
+   /**
+    * Creates a new game engine for the next round of a game; designed to
+    * be created every round because each new engine moves the session on
+    * by a round
+    *
+    * @param session The game the round belongs to
+    */
+   public GameEngine(GameSession session)
+   {
+      this(session, new GameClock());
+   }
+
+   /**
+    * Creates a new game engine for a round of the regular game or, if
+    * given the rules of endless mode, a round of endless mode; designed to
+    * be created every round because each new engine moves the session on
+    * by a round
+    *
+    * @param session The game the round belongs to
+    * @param endless The endless mode in progress, or null for the regular
+    *                game
+    */
+   public GameEngine(GameSession session, EndlessMode endless)
+   {
+      this(session, new GameClock(), endless);
+   }
+
+   /**
+    * Creates a new game engine that measures the round with the given
+    * clock; designed to be created every round because each new engine
+    * moves the session on by a round
+    *
+    * @param session The game the round belongs to
+    * @param clock A stopped clock used for all timing in the round
+    */
+   public GameEngine(GameSession session, GameClock clock)
+   {
+      this(session, clock, null);
+   }
 
    /**
-    * Creates a new game engine; designed to be created very round because
-    * roundID increments with each new engine
+    * Creates a new game engine that measures the round with the given
+    * clock, for either the regular game or endless mode; designed to be
+    * created every round because each new engine moves the session on by a
+    * round
+    *
+    * @param session The game the round belongs to
+    * @param clock A stopped clock used for all timing in the round
+    * @param endless The endless mode in progress, or null for the regular
+    *                game
     */
-   public GameEngine()
+   public GameEngine(GameSession session, GameClock clock,
+                     EndlessMode endless)
    {
-      roundID++;
+      this.session = session;
+      roundID = session.nextRound();
       roundScore = 0;
-      clock_ms = ROUND_TIME_SEC * SEC_TO_MILLISEC;
-      roundTimer = new Timer();
-      decrementClock = new TimerHelper(clock_ms);
+      this.clock = clock;
+      this.endless = endless;
    }
 
 
@@ -70,8 +115,29 @@ public class GameEngine
     */
    public int getTimeRemaining()
    {
-      clock_ms = decrementClock.getClock();
-      return clock_ms / SEC_TO_MILLISEC;
+      return (int) (getMillisRemaining() / SEC_TO_MILLISEC);
+   }
+
+   /**
+    * Returns the remaining time on the clock in milliseconds; negative
+    * once the round is over
+    *
+    * @return The time remaining (in ms) of the round
+    */
+   private long getMillisRemaining()
+   {
+      return ROUND_TIME_SEC * SEC_TO_MILLISEC - clock.getMillis();
+   }
+
+   /**
+    * Gets the game time that has passed this round, not counting time
+    * spent paused. All of the timers of the round are measured against it.
+    *
+    * @return The game time in milliseconds
+    */
+   public long getGameTime()
+   {
+      return clock.getMillis();
    }
 
    /**
@@ -91,7 +157,7 @@ public class GameEngine
     */
    public int getTotalScore()
    {
-      return totalScore;
+      return session.getTotalScore();
    }
 
    /**
@@ -106,6 +172,30 @@ public class GameEngine
       return ROUND_SCORE_THRESHOLDS[roundID - 1];
    }
 
+   /**
+    * Gets the minimum number of points the player must earn this round in
+    * order to advance onto the next round, in whichever mode is being
+    * played
+    *
+    * @return The score threshold for the current round
+    */
+   public int getScoreThreshold()
+   {
+      if(endless != null)
+         return EndlessMode.SCORE_THRESHOLD;
+      return getScoreThreshold(roundID);
+   }
+
+   /**
+    * Gets the endless mode being played
+    *
+    * @return The endless mode in progress, or null in the regular game
+    */
+   public EndlessMode getEndlessMode()
+   {
+      return endless;
+   }
+
    /**
     * Returns if "cheat mode" is currently enables
     *
@@ -113,7 +203,7 @@ public class GameEngine
     */
    public boolean getOverrideStatus()
    {
-      return cheatModeOverride;
+      return session.getOverrideStatus();
    }
 
    /**
@@ -121,20 +211,18 @@ public class GameEngine
     */
    public void setOverride()
    {
-      cheatModeOverride = !cheatModeOverride;
+      session.setOverride();
    }
 
 
    /**
-    * Starts a countdown of the clock member to time a given round. The
-    * TimerTask executes every second
+    * Starts the clock of the round; the player is immune for the first
+    * moments of the round
     */
    public void start()
    {
-      coolDownTimer = System.currentTimeMillis() + IMMUNITY_TIME;
-
-      // Runs the "run" method of TimerHelper every 1 millisecond, no delay
-      roundTimer.schedule(decrementClock, 0, 1);
+      clock.resume();
+      coolDownTimer = clock.getMillis() + IMMUNITY_TIME;
    }
 
    /**
@@ -143,17 +231,42 @@ public class GameEngine
     */
    public void pauseTimer()
    {
-      roundTimer.cancel();
+      clock.pause();
    }
 
    /**
-    * Resumes the timer of the game
+    * Resumes the timer of the game exactly where it was paused
     */
    public void resumeTimer()
    {
-      roundTimer = new Timer();
-      decrementClock = new TimerHelper(clock_ms);
-      start();
+      clock.resume();
+   }
+
+   /**
+    * Writes the round score, cool down and clock of the round to a
+    * snapshot; the rest of the score is kept by the session
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeSigned(roundScore);
+      out.writeSigned(coolDownTimer);
+      clock.save(out);
+   }
+
+   /**
+    * Puts the round score, cool down and clock back as they were in a
+    * snapshot of the same round
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      roundScore = (int) in.readSigned();
+      coolDownTimer = in.readSigned();
+      clock.restore(in);
    }
 
 
@@ -173,7 +286,7 @@ public class GameEngine
          collisionScore *= SPECIAL_ENEMY_MULTIPLIER;
 
       roundScore += collisionScore * zoneMultiplier;
-      totalScore += collisionScore * zoneMultiplier;
+      session.addToTotalScore(collisionScore * zoneMultiplier);
    }
 
    /**
@@ -182,7 +295,7 @@ public class GameEngine
    public void scoreSignCollision()
    {
       roundScore += SIGN_SCORE;
-      totalScore += SIGN_SCORE;
+      session.addToTotalScore(SIGN_SCORE);
    }
 
    /**
@@ -191,7 +304,7 @@ public class GameEngine
    public void addCheatPoints()
    {
       roundScore += CHEAT_POINTS;
-      totalScore += CHEAT_POINTS;
+      session.addToTotalScore(CHEAT_POINTS);
    }
 
    /**
@@ -200,7 +313,7 @@ public class GameEngine
    public void subtractCheatPoints()
    {
       roundScore -= CHEAT_POINTS;
-      totalScore -= CHEAT_POINTS;
+      session.addToTotalScore(-CHEAT_POINTS);
    }
 
 
@@ -212,7 +325,7 @@ public class GameEngine
     */
    public boolean sufficientCoolDownTime()
    {
-      return System.currentTimeMillis() - coolDownTimer > COOL_DOWN_TIME;
+      return clock.getMillis() - coolDownTimer > COOL_DOWN_TIME;
    }
 
    /**
@@ -221,7 +334,7 @@ public class GameEngine
     */
    public void resetCoolDownTimer()
    {
-      coolDownTimer = System.currentTimeMillis();
+      coolDownTimer = clock.getMillis();
    }
 
    /**
@@ -233,7 +346,7 @@ public class GameEngine
     */
    public void resetCoolDownTimer(int extraTime)
    {
-      coolDownTimer = System.currentTimeMillis() + extraTime;
+      coolDownTimer = clock.getMillis() + extraTime;
    }
 
 
@@ -244,7 +357,7 @@ public class GameEngine
     */
    public boolean roundOver()
    {
-      return clock_ms < 0;
+      return getMillisRemaining() < 0;
    }
 
    /**
@@ -255,27 +368,20 @@ public class GameEngine
     */
    public boolean passedLevel()
    {
-      return !lastRound() && roundScore >=
-              ROUND_SCORE_THRESHOLDS[roundID - 1];
+      return !lastRound() && roundScore >= getScoreThreshold();
    }
 
    /**
     * Returns if this round is the last round of the game; there are seven
+    * in the regular game, while endless mode lasts until frames can no
+    * longer keep up
     *
     * @return True if this is the last round, false otherwise
     */
    public boolean lastRound()
    {
+      if(endless != null)
+         return endless.budgetExhausted();
       return roundID == NUM_ROUNDS;
    }
-
-   /**
-    * Resets the static variables of the class for a new game
-    */
-   public void resetGame()
-   {
-      roundID = 0;
-      totalScore = 0;
-      cheatModeOverride = false;
-   }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package TemplarHunt;
+
+/**
+ * What each key does while a game is being played: during a round, on the
+ * pause screen, and on the screen between rounds. The GUI and HeadlessGame
+ * both look keys up here, so a replay presses the same keys to the same
+ * effect as the player who recorded it. Each screen decides what an
+ * action does there; the menus outside a game are left to the GUI.
+ *
+ * Keys are named by the codes JavaFX reports for them, which are the
+ * codes replays store, so nothing here needs JavaFX.
+ *
+ * @author Devon Lee
+ */
+public class GameKeys
+{
+   // Actions, besides the moves of PlayerInput
+   public static final char PAUSE = 'P';
+   public static final char MUTE = 'M';
+   public static final char OVERRIDE = 'O';
+   public static final char ADD_POINTS = '+';
+   public static final char SUBTRACT_POINTS = '-';
+   public static final char END_ROUND = 'E';
+   public static final char CONTINUE = 'C';
+   public static final char TO_TITLE = 'T';
+   public static final char QUIT = 'Q';
+   public static final char CONFIRM = 'Y';
+   public static final char CANCEL = 'N';
+   public static final char NONE = ' ';
+
+   // Key codes, as JavaFX reports them
+   private static final int KEY_ENTER = 10;
+   private static final int KEY_LEFT = 37;
+   private static final int KEY_UP = 38;
+   private static final int KEY_RIGHT = 39;
+   private static final int KEY_DOWN = 40;
+   private static final int KEY_A = 65;
+   private static final int KEY_B = 66;
+   private static final int KEY_C = 67;
+   private static final int KEY_D = 68;
+   private static final int KEY_E = 69;
+   private static final int KEY_I = 73;
+   private static final int KEY_M = 77;
+   private static final int KEY_N = 78;
+   private static final int KEY_O = 79;
+   private static final int KEY_P = 80;
+   private static final int KEY_Q = 81;
+   private static final int KEY_S = 83;
+   private static final int KEY_T = 84;
+   private static final int KEY_U = 85;
+   private static final int KEY_W = 87;
+   private static final int KEY_Y = 89;
+
+   /**
+    * Utility class; not meant to be instantiated
+    */
+   private GameKeys() {}
+
+
+   /**
+    * Finds the action of a key, other than a move
+    *
+    * @param keyCode The code of the key
+    * @return One of the actions above, or NONE for a key with no action
+    */
+   public static char actionOf(int keyCode)
+   {
+      switch(keyCode)
+      {
+         case KEY_P:
+            return PAUSE;
+         case KEY_M:
+            return MUTE;
+         case KEY_O:
+            return OVERRIDE;
+         case KEY_U:
+            return ADD_POINTS;
+         case KEY_I:
+            return SUBTRACT_POINTS;
+         case KEY_E:
+            return END_ROUND;
+         case KEY_ENTER:
+         case KEY_C:
+            return CONTINUE;
+         case KEY_T:
+            return TO_TITLE;
+         case KEY_Q:
+            return QUIT;
+         case KEY_Y:
+            return CONFIRM;
+         case KEY_N:
+         case KEY_B:
+            return CANCEL;
+         default:
+            return NONE;
+      }
+   }
+
+   /**
+    * Finds the move an arrow or WASD key makes
+    *
+    * @param keyCode The code of the key
+    * @return UP, DOWN, LEFT, RIGHT, or STAY for any other key
+    */
+   public static char moveOf(int keyCode)
+   {
+      switch(keyCode)
+      {
+         case KEY_UP:
+         case KEY_W:
+            return PlayerInput.UP;
+         case KEY_DOWN:
+         case KEY_S:
+            return PlayerInput.DOWN;
+         case KEY_LEFT:
+         case KEY_A:
+            return PlayerInput.LEFT;
+         case KEY_RIGHT:
+         case KEY_D:
+            return PlayerInput.RIGHT;
+         default:
+            return PlayerInput.STAY;
+      }
+   }
+
+   /**
+    * Reports whether a key can leave the game before it is over, from the
+    * pause screen or between rounds, which a replay must not do
+    *
+    * @param keyCode The code of the key
+    * @return True if the key leaves the game or answers whether to
+    */
+   public static boolean leavesGame(int keyCode)
+   {
+      char action = actionOf(keyCode);
+      return action == TO_TITLE || action == QUIT || action == CONFIRM ||
+             action == CANCEL;
+   }
+}
@@ -0,0 +1,123 @@
+package TemplarHunt;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Fixed-timestep game loop driven by the JavaFX pulse. Game logic always
+ * advances in ticks of the same length no matter how often JavaFX calls
+ * in, so a late or skipped pulse is made up on the next one instead of
+ * being lost. Drawing happens once per pulse, at the display's refresh
+ * rate, with the fraction of a tick left over passed along so that
+ * figures can be drawn between their last two positions.
+ *
+ * @author Devon Lee
+ */
+public class GameLoop extends AnimationTimer
+{
+   private static final long NANOS_PER_MILLI = 1000000L;
+
+   // Longest stall that will be caught up on; anything beyond this is
+   // dropped so that the game does not fast-forward after a long freeze
+   private static final int MAX_CATCH_UP_TICKS = 25;
+
+   private final long tickLength;
+   private final Runnable tick;
+   private final DoubleConsumer render;
+
+   private long previousTime;
+   private long accumulator;
+   private long frameLength;
+   private boolean running = false;
+
+   /**
+    * Creates a loop that is not yet running
+    *
+    * @param tickMillis The length of one tick of game logic in ms
+    * @param tick Called once per tick of game logic
+    * @param render Called once per frame with how far (0 to 1) the frame
+    *               lies between the previous tick and the next one
+    */
+   public GameLoop(int tickMillis, Runnable tick, DoubleConsumer render)
+   {
+      tickLength = tickMillis * NANOS_PER_MILLI;
+      this.tick = tick;
+      this.render = render;
+   }
+
+
+   /**
+    * Starts or resumes the loop; time spent paused is not made up
+    */
+   public void play()
+   {
+      if(!running)
+      {
+         running = true;
+         previousTime = System.nanoTime();
+         accumulator = 0;
+         frameLength = 0;
+         start();
+      }
+   }
+
+   /**
+    * Pauses the loop until play is called again
+    */
+   public void pause()
+   {
+      running = false;
+      super.stop();
+   }
+
+   /**
+    * Gets the time between the start of the previous frame and the start
+    * of the latest one, which includes all of the game logic and drawing
+    * of the previous frame
+    *
+    * @return The length of the latest frame in nanoseconds
+    */
+   public long getFrameLength()
+   {
+      return frameLength;
+   }
+
+   /**
+    * Stops the loop
+    */
+   @Override
+   public void stop()
+   {
+      pause();
+   }
+
+
+   /**
+    * Runs as many ticks as the time since the last frame calls for, then
+    * draws the frame
+    *
+    * @param now The timestamp of the current frame given by JavaFX; unused
+    *            in favor of System.nanoTime
+    */
+   @Override
+   public void handle(long now)
+   {
+      long currentTime = System.nanoTime();
+      frameLength = currentTime - previousTime;
+      accumulator += frameLength;
+      previousTime = currentTime;
+
+      if(accumulator > MAX_CATCH_UP_TICKS * tickLength)
+         accumulator = MAX_CATCH_UP_TICKS * tickLength;
+
+      while(running && accumulator >= tickLength)
+      {
+         tick.run();
+         accumulator -= tickLength;
+      }
+
+      if(running)
+         render.accept((double) accumulator / tickLength);
+   }
+}
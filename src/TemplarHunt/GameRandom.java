@@ -0,0 +1,80 @@
+package TemplarHunt;
+
+import java.util.Random;
+
+/**
+ * The random number generator of a round. It gives exactly the numbers
+ * java.util.Random gives for the same seed, but its state can be read and
+ * set, so a snapshot of a round can carry on drawing the same numbers the
+ * round would have drawn.
+ *
+ * @author Devon Lee
+ */
+public class GameRandom extends Random
+{
+   private static final long serialVersionUID = 1L;
+
+   // The linear congruential generator of java.util.Random
+   private static final long MULTIPLIER = 0x5DEECE66DL;
+   private static final long ADDEND = 0xBL;
+   private static final long MASK = (1L << 48) - 1;
+
+   // Set by setSeed, which the superclass calls while constructing, so it
+   // must not have an initializer
+   private long state;
+
+   /**
+    * Creates a generator from a seed
+    *
+    * @param seed The seed
+    */
+   public GameRandom(long seed)
+   {
+      super(seed);
+   }
+
+   /**
+    * Starts the generator over from a seed
+    *
+    * @param seed The seed
+    */
+   @Override
+   public synchronized void setSeed(long seed)
+   {
+      super.setSeed(seed);
+      state = (seed ^ MULTIPLIER) & MASK;
+   }
+
+   /**
+    * Gets the current state of the generator
+    *
+    * @return The 48 bits of state
+    */
+   public synchronized long getState()
+   {
+      return state;
+   }
+
+   /**
+    * Puts the generator back into a state read with getState
+    *
+    * @param state The 48 bits of state
+    */
+   public synchronized void setState(long state)
+   {
+      this.state = state & MASK;
+   }
+
+   /**
+    * Generates the next random bits
+    *
+    * @param bits The number of bits to generate, at most 32
+    * @return The bits, in the low end of the int
+    */
+   @Override
+   protected synchronized int next(int bits)
+   {
+      state = (state * MULTIPLIER + ADDEND) & MASK;
+      return (int) (state >>> (48 - bits));
+   }
+}
@@ -0,0 +1,200 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The state of one game that lasts from round to round: which round is
+ * being played, the total score so far, whether "cheat mode" is on, and
+ * the axis the zones were left moving on.
+ * A new game engine is created every round, but all of them share the
+ * session of their game, so several games can be played side by side in
+ * one program, such as many simulated games on different threads, without
+ * interfering with each other.
+ *
+ * Each game has a seed from which the random number generator of every
+ * round is made, so a game replayed from the same seed with the same keys
+ * plays out exactly the same.
+ *
+ * @author Devon Lee
+ */
+public class GameSession
+{
+   // Spreads the seeds of the rounds of a game far apart
+   private static final long ROUND_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+   private long seed;
+   private int roundID = 0;
+   private int totalScore = 0;
+   private boolean cheatModeOverride = false;
+
+   // Carries the axis of the zones from round to round
+   private ZonePattern zonePattern = new ZonePattern();
+
+   /**
+    * Creates a session for a game with a new random seed
+    */
+   public GameSession()
+   {
+      this(newSeed());
+   }
+
+   /**
+    * Creates a session for a game with the given seed
+    *
+    * @param seed The seed of the game
+    */
+   public GameSession(long seed)
+   {
+      this.seed = seed;
+   }
+
+   /**
+    * Picks a new random seed for a game
+    *
+    * @return The seed
+    */
+   public static long newSeed()
+   {
+      return ThreadLocalRandom.current().nextLong();
+   }
+
+   /**
+    * Gets the seed of the game
+    *
+    * @return The seed the rounds of the game are made from
+    */
+   public long getSeed()
+   {
+      return seed;
+   }
+
+   /**
+    * Creates the random number generator of the current round
+    *
+    * @return A generator that depends only on the seed and the round
+    */
+   public GameRandom newRoundRandom()
+   {
+      return new GameRandom(seed + roundID * ROUND_SEED_STEP);
+   }
+
+   /**
+    * Gets the zone pattern of the game, which the zones of every round
+    * share in turn; a snapshot of a round puts it back with the round
+    *
+    * @return The pattern
+    */
+   public ZonePattern getZonePattern()
+   {
+      return zonePattern;
+   }
+
+   /**
+    * Moves the session on to its next round
+    *
+    * @return The number of the new round, starting at 1
+    */
+   public int nextRound()
+   {
+      return ++roundID;
+   }
+
+   /**
+    * Gets the number of the current round
+    *
+    * @return The number of the current round, or 0 before the first
+    */
+   public int getRoundID()
+   {
+      return roundID;
+   }
+
+   /**
+    * Gets the points earned in the game so far
+    *
+    * @return The total score of the game
+    */
+   public int getTotalScore()
+   {
+      return totalScore;
+   }
+
+   /**
+    * Adds points to the total score of the game; negative points take
+    * them away
+    *
+    * @param points The points to add
+    */
+   public void addToTotalScore(int points)
+   {
+      totalScore += points;
+   }
+
+   /**
+    * Returns if "cheat mode" is currently enabled
+    *
+    * @return True if "cheat mode" is enabled, false otherwise
+    */
+   public boolean getOverrideStatus()
+   {
+      return cheatModeOverride;
+   }
+
+   /**
+    * Toggles the "cheat mode" for the game
+    */
+   public void setOverride()
+   {
+      cheatModeOverride = !cheatModeOverride;
+   }
+
+   /**
+    * Writes the round, total score and "cheat mode" of the game to a
+    * snapshot
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeVarint(roundID);
+      out.writeSigned(totalScore);
+      out.writeBoolean(cheatModeOverride);
+   }
+
+   /**
+    * Puts the session back as it was in a snapshot, except that the round
+    * saved has yet to begin, so the next engine created starts it again
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      roundID = (int) in.readVarint() - 1;
+      totalScore = (int) in.readSigned();
+      cheatModeOverride = in.readBoolean();
+   }
+
+   /**
+    * Resets the session for a new game with a new random seed
+    */
+   public void reset()
+   {
+      reset(newSeed());
+   }
+
+   /**
+    * Resets the session for a new game with the given seed
+    *
+    * @param seed The seed of the new game
+    */
+   public void reset(long seed)
+   {
+      this.seed = seed;
+      roundID = 0;
+      totalScore = 0;
+      cheatModeOverride = false;
+      zonePattern = new ZonePattern();
+   }
+}
@@ -0,0 +1,133 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+/**
+ * Everything about a game in progress at one tick, in a few hundred
+ * bytes: the session, the scores and clock of the engine, and the whole
+ * world of the round, from the figures down to the state of its random
+ * number generator. A game put back from a snapshot carries on exactly as
+ * the game it was taken from would have, so a replay can jump to any
+ * tick from the nearest snapshot before it instead of from the start.
+ *
+ * Snapshots are taken between ticks, before any key pressed on the tick
+ * they are taken at. Putting one back takes two steps, since the round
+ * has to be created in between: restoreSession, which leaves the session
+ * just before the round began, then creating the engine and world of the
+ * round, then restoreRound.
+ *
+ * Snapshot format, all varints:
+ *    round, game ticks, whether the round is over,
+ *    then the session, the engine, and the world, as each saves itself
+ *
+ * @author Devon Lee
+ */
+public class GameSnapshot
+{
+   private final CompactBuffer in;
+   private final int roundID;
+   private final long gameTicks;
+   private final boolean roundOver;
+
+   /**
+    * Reads the start of a snapshot
+    *
+    * @param bytes The bytes returned by capture
+    * @throws IOException If the bytes are not a snapshot
+    */
+   public GameSnapshot(byte[] bytes) throws IOException
+   {
+      in = new CompactBuffer(bytes);
+      roundID = (int) in.readVarint();
+      gameTicks = in.readVarint();
+      roundOver = in.readBoolean();
+      if(roundID < 1)
+         throw new IOException("not a snapshot");
+   }
+
+   /**
+    * Takes a snapshot of a game between ticks
+    *
+    * @param session The session of the game
+    * @param engine The engine of the current round
+    * @param world The world of the current round
+    * @param gameTicks The number of ticks played in the game
+    * @param roundOver Whether the round ended on the last tick
+    * @return The bytes of the snapshot
+    */
+   public static byte[] capture(GameSession session, GameEngine engine,
+                                GameWorld world, long gameTicks,
+                                boolean roundOver)
+   {
+      CompactBuffer out = new CompactBuffer();
+      out.writeVarint(engine.getRoundID());
+      out.writeVarint(gameTicks);
+      out.writeBoolean(roundOver);
+      session.save(out);
+      engine.save(out);
+      world.save(out);
+      return out.toBytes();
+   }
+
+   /**
+    * Gets the round the snapshot was taken in
+    *
+    * @return The ID of the round
+    */
+   public int getRoundID()
+   {
+      return roundID;
+   }
+
+   /**
+    * Gets the tick the snapshot was taken at
+    *
+    * @return The number of ticks played in the game
+    */
+   public long getGameTicks()
+   {
+      return gameTicks;
+   }
+
+   /**
+    * Reports whether the round had just ended when the snapshot was taken
+    *
+    * @return True if the round was over, false otherwise
+    */
+   public boolean isRoundOver()
+   {
+      return roundOver;
+   }
+
+   /**
+    * Puts the session back as it was just before the round of the
+    * snapshot began; the game must count its ticks from getGameTicks
+    * before the round is created
+    *
+    * @param session The session to put back
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restoreSession(GameSession session) throws IOException
+   {
+      session.restore(in);
+   }
+
+   /**
+    * Puts the round back as it was in the snapshot, once restoreSession
+    * has been called and the round created and started
+    *
+    * @param engine The new engine of the round
+    * @param world The new world of the round
+    * @throws IOException If the snapshot ends too soon or is of a
+    *                     different round
+    */
+   public void restoreRound(GameEngine engine, GameWorld world)
+          throws IOException
+   {
+      if(engine.getRoundID() != roundID || world.getRoundID() != roundID)
+         throw new IOException("the snapshot is of a different round");
+
+      engine.restore(in);
+      world.restore(in);
+   }
+}
@@ -0,0 +1,481 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+import static TemplarHunt.GameEngine.IMMUNITY_TIME;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Pure-Java model of a single round of the game: the player, scoreboard,
+ * enemies, and zones, along with the per-tick movement and collision
+ * rules between them. The JavaFX figures are views over this model, so a
+ * round can be stepped on a server or in bulk without a window. Everything
+ * random in the round comes from one random number generator, so a round
+ * created with the same seed plays out the same way for the same moves,
+ * and a round put back from a snapshot carries on as the original did.
+ *
+ * @author Devon Lee
+ */
+public class GameWorld
+{
+   public static final int STAGE_SIZE = 816;
+   public static final int NUM_ZONES = 9;
+   public static final int TICK_MILLIS = 20; // Length of one tick in ms
+
+   public static final int[] ENEMIES_IN_ROUND = new int[]
+                                                     {3, 3, 4, 4, 5, 6, 6};
+   public static final int[] SPECIAL_ENEMIES_IN_ROUND = new int[]
+                                                     {0, 0, 0, 1, 1, 1, 2};
+   private static final int RANDOM_ITERATION_MAX = 100000;
+   private static final int GRID_CELL_SIZE = STAGE_SIZE / 6;
+
+   private final int roundID;
+   private final GameRandom random;
+   private final PlayerModel player;
+   private final ScoreboardModel scoreboard;
+   private final EnemyStore enemies;
+   private final ZoneModel[] zones;
+   private final SpatialGrid enemyGrid = newGrid();
+
+   // The tick the enemy grid was last brought up to date on; the grid is
+   // only kept for the queries that ask for it, since checking the player
+   // against every enemy costs less than moving the enemies in the grid
+   private int gridTick = -1;
+
+   private int goodCollisions;
+   private int badCollisions;
+   private int tick = 0;
+
+   /**
+    * Creates the player, scoreboard, enemies, and zones for the round; the
+    * number of enemies created depends on the round
+    *
+    * @param roundID The ID of the current round
+    */
+   public GameWorld(int roundID)
+   {
+      this(roundID, new GameRandom(GameSession.newSeed()));
+   }
+
+   /**
+    * Creates the player, scoreboard, enemies, and zones for the round,
+    * placing them with the given random number generator; the number of
+    * enemies created depends on the round
+    *
+    * @param roundID The ID of the current round
+    * @param random The random number generator of the round
+    */
+   public GameWorld(int roundID, GameRandom random)
+   {
+      this(roundID, random, new ZonePattern());
+   }
+
+   /**
+    * Creates the player, scoreboard, enemies, and zones for the round,
+    * placing them with the given random number generator and moving the
+    * zones by the pattern of the game; the number of enemies created
+    * depends on the round
+    *
+    * @param roundID The ID of the current round
+    * @param random The random number generator of the round
+    * @param pattern The zone pattern of the game, from its session
+    */
+   public GameWorld(int roundID, GameRandom random, ZonePattern pattern)
+   {
+      this(roundID, ENEMIES_IN_ROUND[roundID - 1] +
+                    SPECIAL_ENEMIES_IN_ROUND[roundID - 1],
+           SPECIAL_ENEMIES_IN_ROUND[roundID - 1], random, pattern);
+   }
+
+   /**
+    * Creates the player, scoreboard, zones, and a given number of enemies
+    * for the round; rounds past the last regular one, as in endless mode,
+    * move their zones like the last regular round
+    *
+    * @param roundID The ID of the current round
+    * @param numEnemies The total number of enemies, regular and special
+    * @param numSpecialEnemies How many of the enemies are special
+    */
+   public GameWorld(int roundID, int numEnemies, int numSpecialEnemies)
+   {
+      this(roundID, numEnemies, numSpecialEnemies,
+           new GameRandom(GameSession.newSeed()));
+   }
+
+   /**
+    * Creates the player, scoreboard, zones, and a given number of enemies
+    * for the round, placing them with the given random number generator;
+    * rounds past the last regular one, as in endless mode, move their
+    * zones like the last regular round
+    *
+    * @param roundID The ID of the current round
+    * @param numEnemies The total number of enemies, regular and special
+    * @param numSpecialEnemies How many of the enemies are special
+    * @param random The random number generator of the round
+    */
+   public GameWorld(int roundID, int numEnemies, int numSpecialEnemies,
+                    GameRandom random)
+   {
+      this(roundID, numEnemies, numSpecialEnemies, random,
+           new ZonePattern());
+   }
+
+   /**
+    * Creates the player, scoreboard, zones, and a given number of enemies
+    * for the round, placing them with the given random number generator
+    * and moving the zones by the pattern of the game; rounds past the last
+    * regular one, as in endless mode, move their zones like the last
+    * regular round
+    *
+    * @param roundID The ID of the current round
+    * @param numEnemies The total number of enemies, regular and special
+    * @param numSpecialEnemies How many of the enemies are special
+    * @param random The random number generator of the round
+    * @param pattern The zone pattern of the game, from its session
+    */
+   public GameWorld(int roundID, int numEnemies, int numSpecialEnemies,
+                    GameRandom random, ZonePattern pattern)
+   {
+      this.roundID = roundID;
+      this.random = random;
+
+      player = new PlayerModel();
+      scoreboard = new ScoreboardModel(roundID, random);
+
+      int regular = numEnemies - numSpecialEnemies;
+      enemies = new EnemyStore(numEnemies, random);
+      for(int i = 0; i < numEnemies; i++)
+         enemies.add((int) (STAGE_SIZE * random.nextDouble()),
+                     (int) (STAGE_SIZE * random.nextDouble()),
+                     i >= regular);
+
+      zones = newZones(roundID, pattern);
+
+      randomizeStartPositions();
+      savePositions();
+
+      enemies.classifyZones(zones);
+   }
+
+   /**
+    * Creates the zones of a round in their starting places, for the first
+    * round of a game
+    *
+    * @param roundID The ID of the round
+    * @return The zones, sharing a new movement pattern
+    */
+   public static ZoneModel[] newZones(int roundID)
+   {
+      return newZones(roundID, new ZonePattern());
+   }
+
+   /**
+    * Creates the zones of a round in their starting places; rounds past
+    * the last regular one move their zones like the last regular round.
+    * The zones of a round always move the same way, whatever else happens
+    * in it, given the axis the pattern starts on.
+    *
+    * @param roundID The ID of the round
+    * @param pattern The pattern the zones share, started over for the
+    *                round on whichever axis it was left on
+    * @return The zones
+    */
+   public static ZoneModel[] newZones(int roundID, ZonePattern pattern)
+   {
+      int zoneRound = Math.min(roundID, GameEngine.NUM_ROUNDS);
+      pattern.startRound();
+      ZoneModel[] zones = new ZoneModel[NUM_ZONES];
+      for(int i = 0; i < zones.length; i++)
+         zones[i] = new ZoneModel((i % 3) * (STAGE_SIZE / 3),
+                                  (i / 3) * (STAGE_SIZE / 3),
+                                  i % 3 == 1, i % 2 != 0, zoneRound,
+                                  i + 1, pattern);
+      return zones;
+   }
+
+   /**
+    * Creates an empty broadphase grid covering the playfield and the
+    * margin that zones wrap through
+    *
+    * @return A new grid
+    */
+   private static SpatialGrid newGrid()
+   {
+      return new SpatialGrid(-ZONE_SIZE, STAGE_SIZE + ZONE_SIZE,
+                             GRID_CELL_SIZE);
+   }
+
+   /**
+    * Uses random number to start the various figures at pseudo-random
+    * points on the board for a more interesting game experience. Each
+    * figure jumps straight to where a random number of moves would take
+    * it rather than making those moves.
+    */
+   private void randomizeStartPositions()
+   {
+      scoreboard.advance((long) (random.nextDouble() *
+                                 RANDOM_ITERATION_MAX));
+
+      for(int i = 0; i < enemies.size(); i++)
+         enemies.advance(i, (long) (random.nextDouble() *
+                                    RANDOM_ITERATION_MAX));
+   }
+
+
+   /**
+    * Gets the round this world was created for
+    *
+    * @return The ID of the round
+    */
+   public int getRoundID()
+   {
+      return roundID;
+   }
+
+   /**
+    * Gets the player
+    *
+    * @return The player of the round
+    */
+   public PlayerModel getPlayer()
+   {
+      return player;
+   }
+
+   /**
+    * Gets the scoreboard
+    *
+    * @return The scoreboard of the round
+    */
+   public ScoreboardModel getScoreboard()
+   {
+      return scoreboard;
+   }
+
+   /**
+    * Gets the enemies of the round, regular enemies first and then the
+    * special ones
+    *
+    * @return The store holding every enemy of the round
+    */
+   public EnemyStore getEnemies()
+   {
+      return enemies;
+   }
+
+   /**
+    * Returns the number of enemies (regular and special) present in the
+    * round
+    *
+    * @return The number of enemies in the round
+    */
+   public int getNumEnemies()
+   {
+      return enemies.size();
+   }
+
+   /**
+    * Gets the number of ticks the round has been stepped
+    *
+    * @return The ticks since the round was created
+    */
+   public int getTick()
+   {
+      return tick;
+   }
+
+   /**
+    * Returns the zones array
+    *
+    * @return The array of zones for the round
+    */
+   public ZoneModel[] getZones()
+   {
+      return zones;
+   }
+
+   /**
+    * Gets the broadphase grid of the enemies, whose ids are the indexes
+    * of the enemies, for enemy-vs-enemy and area queries such as the
+    * bot's. The grid is brought up to date the first time it is asked for
+    * on each tick.
+    *
+    * @return The grid of enemies
+    */
+   public SpatialGrid getEnemyGrid()
+   {
+      if(gridTick != tick)
+      {
+         for(int i = 0; i < enemies.size(); i++)
+            enemyGrid.insert(i, enemies.getX(i), enemies.getY(i),
+                             EnemyStore.SIZE, EnemyStore.SIZE);
+         gridTick = tick;
+      }
+      return enemyGrid;
+   }
+
+   /**
+    * Gets the number of enemies tagged inside a cobble zone during the
+    * last call to handleCollisions
+    *
+    * @return The number of good collisions last tick
+    */
+   public int getGoodCollisions()
+   {
+      return goodCollisions;
+   }
+
+   /**
+    * Gets the number of enemies tagged inside a hay zone during the last
+    * call to handleCollisions
+    *
+    * @return The number of bad collisions last tick
+    */
+   public int getBadCollisions()
+   {
+      return badCollisions;
+   }
+
+
+   /**
+    * Advances every non-player figure by one tick of movement, then works
+    * out which zones each enemy is standing in for the next round of
+    * collisions
+    */
+   public void step()
+   {
+      savePositions();
+
+      enemies.moveAll();
+
+      for(int i = 0; i < zones.length; i++)
+         zones[i].move();
+      enemies.classifyZones(zones);
+
+      scoreboard.move();
+      tick++;
+   }
+
+   /**
+    * Writes everything about the round that changes as it is played to a
+    * snapshot: the tick, the state of the random number generator, and
+    * every figure and zone
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeVarint(tick);
+      out.writeVarint(random.getState());
+      player.save(out);
+      scoreboard.save(out);
+      enemies.save(out);
+      for(ZoneModel zone : zones)
+         zone.save(out);
+      zones[0].getPattern().save(out);
+   }
+
+   /**
+    * Puts the round back as it was in a snapshot of a round with the same
+    * ID and number of enemies
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon or is of a
+    *                     different round
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      tick = (int) in.readVarint();
+      random.setState(in.readVarint());
+      player.restore(in);
+      scoreboard.restore(in);
+      enemies.restore(in);
+      for(ZoneModel zone : zones)
+         zone.restore(in);
+      zones[0].getPattern().restore(in);
+
+      gridTick = -1;
+      enemies.classifyZones(zones);
+      goodCollisions = 0;
+      badCollisions = 0;
+   }
+
+   /**
+    * Records the position of every non-player figure before it moves so
+    * that frames drawn between ticks can be interpolated
+    */
+   private void savePositions()
+   {
+      enemies.savePositions();
+
+      for(int i = 0; i < zones.length; i++)
+         zones[i].savePosition();
+
+      scoreboard.savePosition();
+   }
+
+   /**
+    * Tags any enemies the player is touching, scores the tags and any
+    * contact with the scoreboard, and resets the tags once every enemy has
+    * been caught. Nothing happens while the cool down is active.
+    *
+    * The player is checked against every enemy in turn rather than through
+    * the grid: BroadphaseBenchmark finds that moving the enemies in the
+    * grid alone costs more than the whole check at every population from
+    * 10 to 100,000, so the grid never pays for itself on a query made
+    * once a tick.
+    *
+    * @param engine The engine keeping score and cool down for the round
+    */
+   public void handleCollisions(GameEngine engine)
+   {
+      goodCollisions = 0;
+      badCollisions = 0;
+
+      if(!engine.sufficientCoolDownTime())
+         return;
+
+      int x = player.getX();
+      int y = player.getY();
+      int width = player.getWidth();
+      int height = player.getHeight();
+      for(int enemy = 0; enemy < enemies.size(); enemy++)
+      {
+         int enemyX = enemies.getX(enemy);
+         int enemyY = enemies.getY(enemy);
+         if(x + width >= enemyX && enemyX + EnemyStore.SIZE >= x &&
+            y + height >= enemyY && enemyY + EnemyStore.SIZE >= y &&
+            !enemies.isTagged(enemy))
+         {
+            int zoneMulti = enemies.handleCollision(enemy);
+            if(zoneMulti > 0)
+            {
+               goodCollisions++;
+               engine.resetCoolDownTimer();
+            }
+            else if(zoneMulti < 0)
+            {
+               badCollisions++;
+               player.paralyze(engine.getGameTime());
+               engine.resetCoolDownTimer(IMMUNITY_TIME);
+            }
+            else
+               engine.resetCoolDownTimer();
+            engine.scoreEnemyCollision(zoneMulti,
+                                       enemies.isSpecialEnemy(enemy));
+         }
+      }
+
+      if(player.collidedWith(scoreboard))
+      {
+         engine.scoreSignCollision();
+         engine.resetCoolDownTimer();
+      }
+
+      if(enemies.needToResetTags() && engine.sufficientCoolDownTime())
+      {
+         enemies.unTagAll();
+         engine.resetCoolDownTimer();
+      }
+   }
+}
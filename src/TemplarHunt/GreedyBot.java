@@ -0,0 +1,145 @@
+package TemplarHunt;
+
+/**
+ * A bot that plays the game greedily. Every move it picks the untagged
+ * enemy worth the most points for the moves it takes to reach, counting
+ * only enemies standing in cobble zones, and steps towards it. A step
+ * that would bring the player onto an untagged enemy in a hay zone is
+ * skipped in favour of another direction, or of staying put.
+ *
+ * Picking a move looks at every enemy once and asks the broadphase grid
+ * of the round about the few spots the player could step to, so it costs
+ * little more than a tick of the game itself and keeps no state between
+ * moves; thousands of bots can play at once.
+ *
+ * @author Devon Lee
+ */
+public class GreedyBot implements PlayerInput
+{
+   private static final int STEP = PlayerModel.MOVE_DISTANCE;
+
+   // Centres this close on an axis touch after at most one more step
+   private static final int REACH = (PlayerModel.SIZE + EnemyStore.SIZE) /
+                                    2 - STEP / 2;
+
+   // Room left around the player for enemies moving before the next move
+   private static final int MARGIN = 10;
+
+   private static final char[] MOVES = new char[] {UP, DOWN, LEFT, RIGHT};
+
+   /**
+    * Picks the move towards the best enemy that does not touch a bad one
+    *
+    * @param world The round being played
+    * @param engine The engine of the round
+    * @return The move of the bot
+    */
+   @Override
+   public char nextMove(GameWorld world, GameEngine engine)
+   {
+      PlayerModel player = world.getPlayer();
+      if(player.isParalyzed(engine.getGameTime()))
+         return STAY;
+
+      EnemyStore enemies = world.getEnemies();
+      int playerX = player.getX() + player.getWidth() / 2;
+      int playerY = player.getY() + player.getHeight() / 2;
+
+      int target = -1;
+      double bestValue = 0;
+      for(int i = 0; i < enemies.size(); i++)
+      {
+         int multiplier = enemies.getZoneMultiplier(i);
+         if(enemies.isTagged(i) || multiplier <= 0)
+            continue;
+
+         int steps = steps(enemies.getXCenter(i) - playerX) +
+                     steps(enemies.getYCenter(i) - playerY);
+         double value = (double) multiplier /
+                        (steps + 1) * (enemies.isSpecialEnemy(i) ? 2 : 1);
+         if(value > bestValue)
+         {
+            bestValue = value;
+            target = i;
+         }
+      }
+
+      // Close the longer gap to the target first, then the shorter one
+      if(target >= 0)
+      {
+         int dx = enemies.getXCenter(target) - playerX;
+         int dy = enemies.getYCenter(target) - playerY;
+         char alongX = Math.abs(dx) > REACH ? (dx > 0 ? RIGHT : LEFT)
+                                            : STAY;
+         char alongY = Math.abs(dy) > REACH ? (dy > 0 ? DOWN : UP) : STAY;
+         boolean xFirst = Math.abs(dx) >= Math.abs(dy);
+         char first = xFirst ? alongX : alongY;
+         char second = xFirst ? alongY : alongX;
+
+         if(first != STAY && isSafe(world, first))
+            return first;
+         if(second != STAY && isSafe(world, second))
+            return second;
+      }
+
+      if(isSafe(world, STAY))
+         return STAY;
+      for(char move : MOVES)
+         if(isSafe(world, move))
+            return move;
+      return STAY;
+   }
+
+   /**
+    * Counts the steps needed along one axis to touch an enemy
+    *
+    * @param distance The distance between the centres on that axis
+    * @return The number of steps
+    */
+   private static int steps(int distance)
+   {
+      return Math.max(0, (Math.abs(distance) - REACH + STEP - 1) / STEP);
+   }
+
+   /**
+    * Checks whether the player would be clear of every untagged enemy in
+    * a hay zone after a move
+    *
+    * @param world The round being played
+    * @param move The move to check
+    * @return True if the move is safe, false otherwise
+    */
+   private static boolean isSafe(GameWorld world, char move)
+   {
+      PlayerModel player = world.getPlayer();
+      int x = player.getX();
+      int y = player.getY();
+      switch(move)
+      {
+         case UP:
+            y -= STEP;
+            break;
+         case DOWN:
+            y += STEP;
+            break;
+         case LEFT:
+            x -= STEP;
+            break;
+         case RIGHT:
+            x += STEP;
+      }
+
+      EnemyStore enemies = world.getEnemies();
+      SpatialGrid grid = world.getEnemyGrid();
+      int found = grid.query(x - MARGIN, y - MARGIN,
+                             player.getWidth() + 2 * MARGIN,
+                             player.getHeight() + 2 * MARGIN);
+      for(int i = 0; i < found; i++)
+      {
+         int enemy = grid.getResult(i);
+         if(!enemies.isTagged(enemy) && enemies.getZoneMultiplier(enemy) < 0)
+            return false;
+      }
+      return true;
+   }
+}
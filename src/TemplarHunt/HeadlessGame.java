@@ -0,0 +1,312 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+/**
+ * A whole game played without a window, as fast as it can be computed.
+ * Each tick does what the game loop of the GUI does, on a clock that
+ * moves forward exactly one tick at a time instead of reading real time,
+ * and the moves of the player come from a PlayerInput instead of the
+ * keyboard. Nothing is shared with other games, so any number of them can
+ * be played at once on different threads.
+ *
+ * A replay plays the game with the keys of a recorded one instead: they
+ * are pressed with pressKey, which looks them up in GameKeys, as the GUI
+ * does, and does what the GUI does with them during a round, on the pause
+ * screen, and between rounds. Keys that only leave the game early are
+ * ignored. A replay can also jump straight
+ * to a snapshot of the game taken between ticks.
+ *
+ * @author Devon Lee
+ */
+public class HeadlessGame
+{
+   private static final long NANOS_PER_TICK = GameWorld.TICK_MILLIS *
+                                              1000000L;
+
+   private final GameSession session;
+   private final PlayerInput input;
+
+   private GameEngine engine;
+   private GameWorld world;
+   private long gameTicks = 0;
+   private boolean paused = false;
+   private boolean roundOver = false;
+   private boolean endRoundManually = false;
+   private boolean over = false;
+
+   /**
+    * Creates a game that has not started its first round yet
+    *
+    * @param input Where the moves of the player come from
+    */
+   public HeadlessGame(PlayerInput input)
+   {
+      this(input, GameSession.newSeed());
+   }
+
+   /**
+    * Creates a game that has not started its first round yet, with the
+    * given seed for its random numbers
+    *
+    * @param input Where the moves of the player come from, or null if
+    *              they come from pressKey
+    * @param seed The seed of the game
+    */
+   public HeadlessGame(PlayerInput input, long seed)
+   {
+      this.input = input;
+      session = new GameSession(seed);
+   }
+
+   /**
+    * Plays rounds until the player fails one or finishes the last
+    */
+   public void play()
+   {
+      while(hasNextRound())
+         playRound();
+   }
+
+   /**
+    * Plays the next round from start to finish
+    */
+   public void playRound()
+   {
+      startRound();
+      boolean playing = true;
+      while(playing)
+         playing = tick();
+   }
+
+   /**
+    * Reports whether the game goes on to another round, which it does
+    * before the first round and after every round the player passed
+    *
+    * @return True if there is another round to play, false otherwise
+    */
+   public boolean hasNextRound()
+   {
+      return engine == null || engine.passedLevel();
+   }
+
+   /**
+    * Sets up the next round of the game and starts its clock
+    */
+   public void startRound()
+   {
+      engine = new GameEngine(session,
+                              new GameClock(() -> gameTicks *
+                                                  NANOS_PER_TICK));
+      world = new GameWorld(engine.getRoundID(), session.newRoundRandom(),
+                            session.getZonePattern());
+      roundOver = false;
+      engine.start();
+   }
+
+   /**
+    * Plays one tick of the current round: the player makes a move if it
+    * is time to, then collisions are handled and the other figures move
+    *
+    * @return True if the round goes on, false once it is over
+    */
+   public boolean tick()
+   {
+      if(input != null &&
+         world.getTick() % PlayerInput.TICKS_PER_MOVE == 0)
+      {
+         char move = input.nextMove(world, engine);
+         if(!world.getPlayer().isParalyzed(engine.getGameTime()))
+            movePlayer(move);
+      }
+
+      world.handleCollisions(engine);
+      world.step();
+
+      gameTicks++;
+      roundOver = engine.roundOver() || endRoundManually;
+      endRoundManually = false;
+      return !roundOver;
+   }
+
+   /**
+    * Presses a key as the player would in the GUI: during a round, on the
+    * pause screen, or on the screen between rounds
+    *
+    * @param keyCode The code of the key, as the GUI reports it
+    */
+   public void pressKey(int keyCode)
+   {
+      if(over)
+         return;
+
+      char action = GameKeys.actionOf(keyCode);
+      if(roundOver)
+         pressPostRoundKey(action);
+      else if(paused)
+      {
+         if(action == GameKeys.PAUSE)
+         {
+            paused = false;
+            engine.resumeTimer();
+            engine.resetCoolDownTimer();
+         }
+         else if(action == GameKeys.OVERRIDE)
+            engine.setOverride();
+
+         if(engine.getOverrideStatus())
+            movePlayer(GameKeys.moveOf(keyCode));
+      }
+      else
+      {
+         if(action == GameKeys.PAUSE)
+         {
+            engine.pauseTimer();
+            paused = true;
+         }
+         else if(action == GameKeys.OVERRIDE)
+            engine.setOverride();
+         else if(action == GameKeys.ADD_POINTS &&
+                 engine.getOverrideStatus())
+            engine.addCheatPoints();
+         else if(action == GameKeys.SUBTRACT_POINTS &&
+                 engine.getOverrideStatus())
+            engine.subtractCheatPoints();
+         else if(action == GameKeys.END_ROUND && engine.getOverrideStatus())
+            endRoundManually = true;
+
+         if(!world.getPlayer().isParalyzed(engine.getGameTime()))
+            movePlayer(GameKeys.moveOf(keyCode));
+      }
+   }
+
+   /**
+    * Presses a key on the screen between rounds, which starts the next
+    * round or ends the game
+    *
+    * @param action The action of the key, from GameKeys
+    */
+   private void pressPostRoundKey(char action)
+   {
+      if(action == GameKeys.CONTINUE)
+      {
+         if(engine.passedLevel())
+            startRound();
+         else
+            over = true;
+      }
+      else if((action == GameKeys.OVERRIDE ||
+               action == GameKeys.END_ROUND) &&
+              engine.getOverrideStatus() && !engine.lastRound())
+         startRound();
+   }
+
+   /**
+    * Moves the player one step in the given direction, as an arrow key
+    * does
+    *
+    * @param move UP, DOWN, LEFT, RIGHT, or STAY
+    */
+   private void movePlayer(char move)
+   {
+      PlayerModel player = world.getPlayer();
+      switch(move)
+      {
+         case PlayerInput.UP:
+            player.move(0, -PlayerModel.MOVE_DISTANCE);
+            break;
+         case PlayerInput.DOWN:
+            player.move(0, PlayerModel.MOVE_DISTANCE);
+            break;
+         case PlayerInput.LEFT:
+            player.move(-PlayerModel.MOVE_DISTANCE, 0);
+            break;
+         case PlayerInput.RIGHT:
+            player.move(PlayerModel.MOVE_DISTANCE, 0);
+      }
+   }
+
+   /**
+    * Takes a snapshot of the game between ticks
+    *
+    * @return The bytes of the snapshot
+    */
+   public byte[] snapshot()
+   {
+      return GameSnapshot.capture(session, engine, world, gameTicks,
+                                  roundOver);
+   }
+
+   /**
+    * Puts the game back as it was in a snapshot, creating the round it
+    * was taken in
+    *
+    * @param snapshot The snapshot to put back
+    * @throws IOException If the snapshot cannot be read
+    */
+   public void restore(GameSnapshot snapshot) throws IOException
+   {
+      snapshot.restoreSession(session);
+      gameTicks = snapshot.getGameTicks();
+      startRound();
+      snapshot.restoreRound(engine, world);
+
+      roundOver = snapshot.isRoundOver();
+      paused = false;
+      endRoundManually = false;
+      over = false;
+   }
+
+   /**
+    * Counts the ticks played in the game so far; the clock of every round
+    * reads its time from them
+    *
+    * @return The number of ticks played in all rounds
+    */
+   public long getGameTicks()
+   {
+      return gameTicks;
+   }
+
+   /**
+    * Reports whether a round is being played and is not paused, so ticks
+    * move it on
+    *
+    * @return True if the current round is running, false otherwise
+    */
+   public boolean isRunning()
+   {
+      return engine != null && !paused && !roundOver && !over;
+   }
+
+   /**
+    * Reports whether the player has left the last screen between rounds
+    * of the game
+    *
+    * @return True if the game is over, false otherwise
+    */
+   public boolean isOver()
+   {
+      return over;
+   }
+
+   /**
+    * Gets the engine of the current round
+    *
+    * @return The engine, or null before the first round
+    */
+   public GameEngine getEngine()
+   {
+      return engine;
+   }
+
+   /**
+    * Gets the current round
+    *
+    * @return The world of the round, or null before the first round
+    */
+   public GameWorld getWorld()
+   {
+      return world;
+   }
+}
@@ -1,81 +1,278 @@
 package TemplarHunt;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 
 /**
- * This class contains a list of high scores and the corresponding names
- * read from a file. It also updates the file whenever a player achieves a
- * new high score.
+ * This class contains the leaderboard of every game played, and the names
+ * and scores of the best games for the screens that show them. The
+ * leaderboard lives in a LeaderboardLog shared with any other copy of the
+ * game on the machine. A background thread appends the scores added here
+ * to the log and, every POLL_INTERVAL, picks up the scores the other
+ * copies have appended. The same thread loads the leaderboard when the
+ * game starts, so nothing waits on it; until it is loaded the best games
+ * are placeholders, and a listener hears when they change.
+ *
+ * The first time the game runs with the log, the scores of the older
+ * HighScores.txt are imported into it.
  *
  * @author Devon Lee
  */
-public class HighScoresData
+public class HighScoresData implements Runnable
 {
    public static final int NUM_HIGH_SCORES_SAVED = 5;
+   public static final String PLACEHOLDER_NAME = "Loading...";
+   public static final int UNKNOWN_SCORE = Integer.MIN_VALUE;
+
+   private static final String LOG_FILE = "Leaderboard.log";
+   private static final String OLD_SCORE_FILE = "HighScores.txt";
+   private static final long POLL_INTERVAL = 2000; // Milliseconds
 
-   private final File scoreFile;
+   private final LeaderboardLog log;
+   private Leaderboard leaderboard = new Leaderboard();
 
+   // Games added here and not yet appended to the log
+   private Leaderboard pending = new Leaderboard();
+   private boolean appending = false;
+   private boolean loaded = false;
+   private Runnable onChange = null;
+
+   // The best games, refreshed whenever a game is added
    private final String[] names = new String[NUM_HIGH_SCORES_SAVED];
    private final int[] scores = new int[NUM_HIGH_SCORES_SAVED];
 
    public HighScoresData()
    {
-      scoreFile = new File("HighScores.txt");
-      String inputLine;
-      try
+      log = new LeaderboardLog(Paths.get(LOG_FILE));
+   }
+
+   /**
+    * Starts the background thread that loads the leaderboard and keeps it
+    * in step with the log; until then the best games are placeholders
+    */
+   public void start()
+   {
+      Thread logThread = new Thread(this, "Leaderboard log");
+      logThread.setDaemon(true);
+      logThread.start();
+   }
+
+   /**
+    * Sets the action to run whenever the best games change, including
+    * when the leaderboard has been loaded. It is run on the background
+    * thread of the leaderboard.
+    *
+    * @param onChange The action to run, or null for none
+    */
+   public synchronized void setOnChange(Runnable onChange)
+   {
+      this.onChange = onChange;
+   }
+
+   /**
+    * Loads the leaderboard from the log, first importing the old scores
+    * if there is no log yet
+    */
+   private void load()
+   {
+      if(!log.exists())
       {
-         BufferedReader jin = new BufferedReader(
-                                  new FileReader(scoreFile));
-         for(int i = 0; i < NUM_HIGH_SCORES_SAVED; i++)
+         // Only the copy of the game that creates the log imports them
+         Leaderboard imported = importOldScores();
+         try
+         {
+            log.createIfMissing(imported.size() > 0 ? imported.toBytes()
+                                                    : null);
+         }
+         catch(IOException e)
+         {
+            System.out.println("The old high scores could not be " +
+                               "imported: " + e);
+         }
+      }
+      readLog();
+
+      // If the log could not be read, the leaderboard starts out empty
+      Runnable listener;
+      synchronized(this)
+      {
+         if(loaded)
+            return;
+         loaded = true;
+         listener = onChange;
+      }
+      if(listener != null)
+         listener.run();
+   }
+
+   /**
+    * Appends the games added here to the log as they come in, and reads
+    * the games other copies of the game append, forever
+    */
+   @Override
+   public void run()
+   {
+      load();
+
+      while(true)
+      {
+         Leaderboard batch;
+         synchronized(this)
          {
             try
             {
-               if((inputLine = jin.readLine()) != null)
-               {
-                  names[i] = inputLine.substring(0,
-                                       inputLine.lastIndexOf(' '));
-                  scores[i] = Integer.parseInt(inputLine.substring(
-                                      inputLine.lastIndexOf(' ') + 1));
-               }
+               if(pending.size() == 0)
+                  wait(POLL_INTERVAL);
+            }
+            catch(InterruptedException e)
+            {
+               return;
+            }
+            batch = pending;
+            pending = new Leaderboard();
+            appending = true;
+         }
+
+         if(batch.size() > 0)
+         {
+            try
+            {
+               log.append(batch.toBytes());
             }
             catch(IOException e)
             {
-               System.out.println("An IO error occurred while " +
-                                  "reading a line.");
-               makeErrorArray();
+               System.out.println("An IO error occurred; the new high " +
+                                  "scores were not saved: " + e);
             }
          }
+         readLog();
+
+         synchronized(this)
+         {
+            appending = false;
+            notifyAll();
+         }
       }
+   }
+
+   /**
+    * Adds the games other copies of the game appended to the log since
+    * the last read. If the log was compacted in between, or on the first
+    * read, the leaderboard is rebuilt from the whole log plus the games not
+    * yet appended.
+    */
+   private void readLog()
+   {
+      Runnable listener = null;
+      try
+      {
+         ArrayList<byte[]> blocks = log.readNew();
+         boolean replaced = log.wasReplaced();
+
+         // A whole log is read without holding up the screens, which
+         // only wait for the new leaderboard to be swapped in
+         Leaderboard rebuilt = null;
+         if(replaced)
+         {
+            rebuilt = new Leaderboard();
+            for(byte[] block : blocks)
+               rebuilt.addAll(block);
+         }
 
-      catch(Exception e)
+         synchronized(this)
+         {
+            if(replaced)
+            {
+               rebuilt.addAll(pending.toBytes());
+               leaderboard = rebuilt;
+            }
+            else
+               for(byte[] block : blocks)
+                  leaderboard.addAll(block);
+            refreshTopScores();
+
+            if(replaced || !blocks.isEmpty() || !loaded)
+               listener = onChange;
+            loaded = true;
+         }
+      }
+      catch(IOException e)
       {
-         System.out.println("An error occurred while reading a line.");
+         System.out.println("The leaderboard could not be read: " + e);
       }
+
+      if(listener != null)
+         listener.run();
    }
 
    /**
-    * Populates the high score name and score array with values to make it
-    * clear that an error has occurred when trying to read the file. This
-    * method should not be used under normal circumstances.
+    * Reads the scores kept in the file used before the log
+    *
+    * @return A leaderboard of the old scores
     */
-   private void makeErrorArray()
+   private static Leaderboard importOldScores()
    {
-      for(int j = 0; j < NUM_HIGH_SCORES_SAVED; j++)
+      Leaderboard imported = new Leaderboard();
+      String[] lines;
+      try
+      {
+         lines = new String(Files.readAllBytes(Paths.get(OLD_SCORE_FILE)),
+                            StandardCharsets.UTF_8).split("\\n");
+      }
+      catch(IOException e)
       {
-         names[j] = "N/A";
-         scores[j] = Integer.MIN_VALUE;
+         return imported;
       }
+
+      // Oldest (lowest) first, skipping any header line
+      for(int i = lines.length - 1; i >= 0; i--)
+      {
+         String inputLine = lines[i].trim();
+         if(inputLine.startsWith("#") || inputLine.lastIndexOf(' ') < 0)
+            continue;
+
+         try
+         {
+            imported.add(inputLine.substring(0, inputLine.lastIndexOf(' ')),
+                         Integer.parseInt(inputLine.substring(
+                                          inputLine.lastIndexOf(' ') + 1)));
+         }
+         catch(NumberFormatException e)
+         {
+            System.out.println("Skipped an unreadable old high score.");
+         }
+      }
+      return imported;
    }
 
+   /**
+    * Copies the names and scores of the best games out of the leaderboard;
+    * empty places keep a null name and a score of 0
+    */
+   private void refreshTopScores()
+   {
+      int[] top = leaderboard.top(NUM_HIGH_SCORES_SAVED);
+      for(int i = 0; i < top.length; i++)
+      {
+         names[i] = leaderboard.getName(top[i]);
+         scores[i] = leaderboard.getScore(top[i]);
+      }
+   }
 
    /**
     * Gets the name on the high score list of a given index
     *
     * @param index The index of the name desired
-    * @return The name corresponding to the given index
+    * @return The name corresponding to the given index, or
+    *         PLACEHOLDER_NAME while the leaderboard is loading
     */
-   public String getName(int index)
+   public synchronized String getName(int index)
    {
+      if(!loaded)
+         return PLACEHOLDER_NAME;
       return names[index];
    }
 
@@ -83,93 +280,87 @@ public class HighScoresData
     * Gets the high score of a given index
     *
     * @param index The index of the score desired
-    * @return The score corresponding to the given index
+    * @return The score corresponding to the given index, or UNKNOWN_SCORE
+    *         while the leaderboard is loading
     */
-   public int getScore(int index)
+   public synchronized int getScore(int index)
    {
+      if(!loaded)
+         return UNKNOWN_SCORE;
       return scores[index];
    }
 
    /**
     * Returns the all-time highest score
     *
-    * @return The value of the highest score
+    * @return The value of the highest score, or UNKNOWN_SCORE while the
+    *         leaderboard is loading
     */
-   public int getHighestScore()
+   public synchronized int getHighestScore()
    {
+      if(!loaded)
+         return UNKNOWN_SCORE;
       return scores[0];
    }
 
    /**
-    * Returns whether or not the given score should be on the leaderboard
+    * Gets the text to show for a score, which is a placeholder for a score
+    * that is not known yet
+    *
+    * @param score The score to show
+    * @return The score as text, or "--" for UNKNOWN_SCORE
+    */
+   public static String toText(int score)
+   {
+      if(score == UNKNOWN_SCORE)
+         return "--";
+      return String.valueOf(score);
+   }
+
+   /**
+    * Returns whether or not the given score would be one of the best games
+    * shown on the high score screens
     *
     * @param score The score to be evaluated
     * @return True of the score should be on the leaderboard, false
-    *         otherwise
+    *         otherwise, including while the leaderboard is still loading
     */
-   public boolean isHighScore(int score)
+   public synchronized boolean isHighScore(int score)
    {
-      return score >= scores[NUM_HIGH_SCORES_SAVED - 1];
+      if(!loaded)
+         return false;
+      return leaderboard.rankOf(score) <= NUM_HIGH_SCORES_SAVED;
    }
 
-
    /**
-    * Sets the given name and score into the list of high score by bumping
-    * each lower score down one slot. The score previously in last place is
-    * discarded. If two scores are equal, the newer score takes precedence.
+    * Adds the given name and score to the leaderboard; it is saved to the
+    * log in the background. If two scores are equal, the newer score takes
+    * precedence.
     *
     * @param name The name to be added to the high scores list
     * @param score The score to be added to the high scores list
     */
-   public void setHighScore(String name, int score)
+   public synchronized void setHighScore(String name, int score)
    {
-      int indexToSet = getPlacementIndex(score);
-
-      if(indexToSet < 4)
-         for(int i = NUM_HIGH_SCORES_SAVED - 2; i >= indexToSet; i--)
-         {
-            names[i + 1] = names[i];
-            scores[i + 1] = scores[i];
-         }
-
-      names[indexToSet] = name;
-      scores[indexToSet] = score;
-
-      StringBuilder updatedHighScores = new StringBuilder();
-      for(int i = 0; i < NUM_HIGH_SCORES_SAVED; i++)
-         updatedHighScores.append(names[i]).append(" ").
-                           append(scores[i]).append("\n");
+      leaderboard.add(name, score);
+      pending.add(name, score);
+      refreshTopScores();
+      notifyAll();
+   }
 
+   /**
+    * Waits until every score added so far has been saved to the log
+    */
+   public synchronized void flush()
+   {
       try
       {
-         BufferedWriter jout = new BufferedWriter(
-                                   new FileWriter(scoreFile));
-
-         jout.write(updatedHighScores.toString());
-         jout.close();
+         while(pending.size() > 0 || appending)
+            wait();
       }
-      catch(IOException e)
+      catch(InterruptedException e)
       {
-         System.out.println("An IO error occurred; " +
-                            "no changes were saved.");
+         Thread.currentThread().interrupt();
       }
    }
-
-   /**
-    * Gets the index of a potential high score, i.e. where it would fall in
-    * the current list of high scores
-    *
-    * @param score The score to be evaluated
-    * @return The index of which the score is greater in the current
-    *         scores list or -1 if such a value cannot be found
-    */
-   private int getPlacementIndex(int score)
-   {
-      for(int i = 0; i < NUM_HIGH_SCORES_SAVED; i++)
-         if(score >= scores[i])
-            return i;
-
-      return -1;
-   }
 }
-
@@ -0,0 +1,82 @@
+package TemplarHunt;
+
+import javafx.scene.image.Image;
+
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of decoded images, the one place the images of the
+ * game are kept. Every image is loaded the first time it is asked for,
+ * and the same Image is then shared by every ImageView and canvas that
+ * shows it, in every round. The cache can report how much memory the
+ * decoded images take up.
+ *
+ * @author Devon Lee
+ */
+public class ImageCache
+{
+   // Decoded images are held by JavaFX as 32-bit pixels
+   private static final int BYTES_PER_PIXEL = 4;
+   private static final int BYTES_PER_KILOBYTE = 1024;
+
+   private static final HashMap<String, Image> images = new HashMap<>();
+
+   /**
+    * Gets the image stored under a name, loading it if this is the first
+    * time it has been asked for
+    *
+    * @param name The name of the image, such as "Hay.png@272x272-60.v1.png"
+    * @param loader Loads or makes the image the first time; returns null
+    *               if it cannot, in which case it is tried again next time
+    * @return The image, or null if it could not be loaded
+    */
+   public static synchronized Image get(String name, Supplier<Image> loader)
+   {
+      Image image = images.get(name);
+      if(image == null)
+      {
+         image = loader.get();
+         if(image != null)
+            images.put(name, image);
+      }
+      return image;
+   }
+
+   /**
+    * Gets the number of images in the cache
+    *
+    * @return The number of images decoded so far
+    */
+   public static synchronized int size()
+   {
+      return images.size();
+   }
+
+   /**
+    * Gets the memory taken up by the pixels of every decoded image in the
+    * cache
+    *
+    * @return The footprint of the cache in bytes
+    */
+   public static synchronized long getFootprint()
+   {
+      long bytes = 0;
+      for(Image image : images.values())
+         if(!image.isError())
+            bytes += (long) image.getWidth() * (long) image.getHeight() *
+                     BYTES_PER_PIXEL;
+      return bytes;
+   }
+
+   /**
+    * Gets a summary of the contents of the cache, suitable for logging
+    *
+    * @return The number of images cached and their footprint
+    */
+   public static String report()
+   {
+      return "Image cache: " + size() + " images, " +
+             getFootprint() / BYTES_PER_KILOBYTE + " KB";
+   }
+}
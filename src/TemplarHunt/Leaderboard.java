@@ -0,0 +1,317 @@
+package TemplarHunt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every game ever played, ranked by score. Adding a game, finding the rank
+ * a score would get, and listing the best games all take logarithmic time,
+ * so the leaderboard keeps up with millions of games.
+ *
+ * The games are kept in the order they were played, with their names
+ * packed into one byte array. A Fenwick tree counts the games in buckets
+ * of scores, one score wide unless the scores are spread very far apart,
+ * which gives the number of games below any score. A sorted index from
+ * each score to its games gives the best games in order and the counts
+ * inside a bucket. Of two equal scores the newer one ranks higher.
+ *
+ * Binary format: int number of games, then for each game in the order
+ * they were played: int score, unsigned byte name length, UTF-8 name
+ *
+ * @author Devon Lee
+ */
+public class Leaderboard
+{
+   private static final int INITIAL_CAPACITY = 16;
+   private static final int MAX_NAME_BYTES = 255;
+   private static final int MAX_BUCKETS = 1 << 20;
+
+   // Games in the order they were played
+   private int size = 0;
+   private int[] scores = new int[INITIAL_CAPACITY];
+   private int[] nameStarts = new int[INITIAL_CAPACITY + 1];
+   private byte[] names = new byte[INITIAL_CAPACITY * 8];
+
+   // Ids of the games at each score, oldest first
+   private final TreeMap<Integer, int[]> index = new TreeMap<>();
+
+   // Number of games in each bucket of 2^shift scores from lowScore, as a
+   // Fenwick tree
+   private long lowScore = 0;
+   private int shift = 0;
+   private int[] tree = new int[INITIAL_CAPACITY + 1];
+
+   /**
+    * Adds a game to the leaderboard
+    *
+    * @param name The name of the player
+    * @param score The score of the game
+    * @return The rank of the game, starting at 1
+    */
+   public int add(String name, int score)
+   {
+      int rank = rankOf(score);
+      int id = size;
+
+      if(size == scores.length)
+      {
+         scores = Arrays.copyOf(scores, size * 2);
+         nameStarts = Arrays.copyOf(nameStarts, size * 2 + 1);
+      }
+      byte[] bytes = encode(name);
+      int start = nameStarts[id];
+      if(start + bytes.length > names.length)
+         names = Arrays.copyOf(names, Math.max(names.length * 2,
+                                               start + bytes.length));
+      System.arraycopy(bytes, 0, names, start, bytes.length);
+      nameStarts[id + 1] = start + bytes.length;
+      scores[id] = score;
+      size++;
+
+      int[] games = index.get(score);
+      if(games == null)
+         games = new int[] {0, 0, 0, 0}; // Count first, then the ids
+      else if(games[0] + 1 == games.length)
+         games = Arrays.copyOf(games, games.length * 2);
+      games[++games[0]] = id;
+      index.put(score, games);
+
+      count(score);
+      return rank;
+   }
+
+   /**
+    * Gets the rank a game with the given score would get if it were played
+    * now
+    *
+    * @param score The score of the game
+    * @return The rank, starting at 1
+    */
+   public int rankOf(int score)
+   {
+      return size - countUpTo(score) + 1;
+   }
+
+   /**
+    * Gets the number of games on the leaderboard
+    *
+    * @return The number of games
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Gets the ids of the best games, best first
+    *
+    * @param count The most games to list
+    * @return The ids of up to count games, for getName and getScore
+    */
+   public int[] top(int count)
+   {
+      int[] ids = new int[Math.min(count, size)];
+      int found = 0;
+
+      for(int[] games : index.descendingMap().values())
+      {
+         for(int i = games[0]; i >= 1 && found < ids.length; i--)
+            ids[found++] = games[i];
+         if(found == ids.length)
+            break;
+      }
+
+      return ids;
+   }
+
+   /**
+    * Gets the name of the player of a game
+    *
+    * @param id The id of the game, from top
+    * @return The name of the player
+    */
+   public String getName(int id)
+   {
+      return new String(names, nameStarts[id],
+                        nameStarts[id + 1] - nameStarts[id],
+                        StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Gets the score of a game
+    *
+    * @param id The id of the game, from top
+    * @return The score of the game
+    */
+   public int getScore(int id)
+   {
+      return scores[id];
+   }
+
+   /**
+    * Writes every game in the binary format
+    *
+    * @return The leaderboard in the binary format
+    */
+   public byte[] toBytes()
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                                    Integer.BYTES + size * Integer.BYTES +
+                                    size + nameStarts[size]);
+      try(DataOutputStream out = new DataOutputStream(bytes))
+      {
+         out.writeInt(size);
+         for(int id = 0; id < size; id++)
+         {
+            out.writeInt(scores[id]);
+            out.writeByte(nameStarts[id + 1] - nameStarts[id]);
+            out.write(names, nameStarts[id],
+                      nameStarts[id + 1] - nameStarts[id]);
+         }
+      }
+      catch(IOException e)
+      {
+         // Writing to memory cannot fail
+         throw new IllegalStateException(e);
+      }
+      return bytes.toByteArray();
+   }
+
+   /**
+    * Adds every game of a leaderboard written in the binary format, in the
+    * order they were played; if the bytes turn out not to be a whole
+    * leaderboard, the games before the problem stay added
+    *
+    * @param bytes The games in the binary format
+    * @throws IOException If the bytes are not a whole leaderboard
+    */
+   public void addAll(byte[] bytes) throws IOException
+   {
+      try(DataInputStream in = new DataInputStream(
+                               new ByteArrayInputStream(bytes)))
+      {
+         int count = in.readInt();
+         if(count < 0)
+            throw new IOException("negative number of games");
+
+         for(int i = 0; i < count; i++)
+         {
+            int score = in.readInt();
+            byte[] name = new byte[in.readUnsignedByte()];
+            in.readFully(name);
+            add(new String(name, StandardCharsets.UTF_8), score);
+         }
+         if(in.available() > 0)
+            throw new IOException("data after the last game");
+      }
+   }
+
+   /**
+    * Encodes a name, cutting it short if it is too long to store
+    *
+    * @param name The name to encode
+    * @return The name in UTF-8
+    */
+   private static byte[] encode(String name)
+   {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      while(bytes.length > MAX_NAME_BYTES)
+      {
+         name = name.substring(0, name.length() - 1);
+         bytes = name.getBytes(StandardCharsets.UTF_8);
+      }
+      return bytes;
+   }
+
+   /**
+    * Counts a new game in the Fenwick tree, first widening the tree if the
+    * score is outside the scores it covers. The tree doubles its number of
+    * buckets up to MAX_BUCKETS, and after that doubles their width.
+    *
+    * @param score The score of the new game
+    */
+   private void count(int score)
+   {
+      int buckets = tree.length - 1;
+      if(size == 1)
+         lowScore = score - ((long) buckets / 2 << shift);
+
+      if(score >= lowScore && score < lowScore + ((long) buckets << shift))
+      {
+         increase(score, 1);
+         return;
+      }
+
+      long low = Math.min(lowScore, score);
+      long high = Math.max(lowScore + ((long) buckets << shift),
+                           (long) score + 1);
+      while(((long) buckets << shift) < high - low)
+         if(buckets < MAX_BUCKETS)
+            buckets *= 2;
+         else
+            shift++;
+
+      // Centred on the scores seen so far, leaving room on both sides
+      lowScore = low - (((long) buckets << shift) - (high - low)) / 2;
+      tree = new int[buckets + 1];
+      for(Map.Entry<Integer, int[]> games : index.entrySet())
+         increase(games.getKey(), games.getValue()[0]);
+   }
+
+   /**
+    * Adds to the count of games in the bucket of a score
+    *
+    * @param score The score, inside the tree
+    * @param amount The number of games to add
+    */
+   private void increase(int score, int amount)
+   {
+      for(int i = bucketOf(score) + 1; i < tree.length; i += i & -i)
+         tree[i] += amount;
+   }
+
+   /**
+    * Counts the games at or below a score: the games in every lower bucket
+    * from the tree, plus those in the bucket of the score from the index
+    *
+    * @param score The score
+    * @return The number of games scoring at most that much
+    */
+   private int countUpTo(int score)
+   {
+      if(size == 0 || score < lowScore)
+         return 0;
+      if(score >= lowScore + ((long) (tree.length - 1) << shift))
+         return size;
+
+      int bucket = bucketOf(score);
+      int count = 0;
+      for(int i = bucket; i > 0; i -= i & -i)
+         count += tree[i];
+
+      int bucketStart = (int) Math.max(Integer.MIN_VALUE,
+                                       lowScore + ((long) bucket << shift));
+      for(int[] games : index.subMap(bucketStart, true, score, true)
+                             .values())
+         count += games[0];
+      return count;
+   }
+
+   /**
+    * Finds the bucket of the Fenwick tree a score is counted in
+    *
+    * @param score The score, inside the tree
+    * @return The bucket, starting at 0
+    */
+   private int bucketOf(int score)
+   {
+      return (int) ((score - lowScore) >> shift);
+   }
+}
@@ -0,0 +1,361 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * The leaderboard file shared by every copy of the game running on one
+ * machine. It is a log that games are only ever appended to, in blocks in
+ * the binary format of Leaderboard, so each copy remembers how far it has
+ * read and picks up the games added by the others by reading only what
+ * was appended since.
+ *
+ * Copies coordinate through locks on a lock file beside the log: reading
+ * takes a shared lock and appending an exclusive one. Before appending, a
+ * copy reads whatever the others appended, so its own games land after
+ * theirs; a block cut short by a crash is cut off the end at that point.
+ * Every COMPACT_AFTER_BLOCKS blocks the log is compacted into a single
+ * block under a new generation number, and a copy that sees the
+ * generation change reads the whole log again.
+ *
+ * Log format, all numbers big-endian:
+ *    int magic, int version, long generation,
+ *    then blocks of: int length, int CRC-32 of the games, the games
+ *
+ * @author Devon Lee
+ */
+public class LeaderboardLog
+{
+   private static final int MAGIC = 0x54484c47; // "THLG"
+   private static final int VERSION = 1;
+   private static final int HEADER_BYTES = 16;
+   private static final int BLOCK_HEADER_BYTES = 8;
+   private static final int COMPACT_AFTER_BLOCKS = 256;
+
+   private final Path file;
+   private final Path lockFile;
+   private final Path temp;
+
+   // How far this copy has read, in which generation of the log
+   private long generation = -1;
+   private long position = HEADER_BYTES;
+   private int blocks = 0;
+
+   // Blocks read but not yet handed out by readNew
+   private final ArrayList<byte[]> unread = new ArrayList<>();
+   private boolean replaced = false;
+
+   /**
+    * Creates a log at the given location; nothing is read until readNew
+    *
+    * @param file The location of the log
+    */
+   public LeaderboardLog(Path file)
+   {
+      this.file = file;
+      lockFile = file.resolveSibling(file.getFileName() + ".lock");
+      temp = file.resolveSibling(file.getFileName() + ".tmp");
+   }
+
+   /**
+    * Reports whether the log file exists yet
+    *
+    * @return True if some copy of the game has created the log
+    */
+   public boolean exists()
+   {
+      return Files.isRegularFile(file);
+   }
+
+   /**
+    * Reads the blocks appended by other copies since the last call, or
+    * every block if the log was compacted since then
+    *
+    * @return The new blocks in the binary format of Leaderboard
+    * @throws IOException If the log cannot be read
+    */
+   public synchronized ArrayList<byte[]> readNew() throws IOException
+   {
+      try(FileChannel lock = openLock())
+      {
+         FileLock shared = lock.lock(0, Long.MAX_VALUE, true);
+         try
+         {
+            tail();
+         }
+         finally
+         {
+            shared.release();
+         }
+      }
+
+      ArrayList<byte[]> read = new ArrayList<>(unread);
+      unread.clear();
+      return read;
+   }
+
+   /**
+    * Reports whether the blocks handed out by the last readNew start over
+    * from the beginning of the log rather than follow on from earlier ones
+    *
+    * @return True if the games read so far should be thrown away
+    */
+   public synchronized boolean wasReplaced()
+   {
+      boolean wasReplaced = replaced;
+      replaced = false;
+      return wasReplaced;
+   }
+
+   /**
+    * Creates the log with a first block of games, unless some copy of the
+    * game has created it already
+    *
+    * @param games Games in the binary format of Leaderboard, or null to
+    *              start the log empty
+    * @return True if this call created the log
+    * @throws IOException If the log cannot be written
+    */
+   public synchronized boolean createIfMissing(byte[] games)
+         throws IOException
+   {
+      try(FileChannel lock = openLock())
+      {
+         FileLock exclusive = lock.lock();
+         try
+         {
+            if(exists())
+               return false;
+            create(generation + 1, games);
+            return true;
+         }
+         finally
+         {
+            exclusive.release();
+         }
+      }
+   }
+
+   /**
+    * Appends a block of games to the log, creating the log if needed;
+    * compacts the log once enough blocks have been appended
+    *
+    * @param games Games in the binary format of Leaderboard
+    * @throws IOException If the log cannot be written
+    */
+   public synchronized void append(byte[] games) throws IOException
+   {
+      try(FileChannel lock = openLock())
+      {
+         FileLock exclusive = lock.lock();
+         try
+         {
+            if(!exists())
+               create(generation + 1, null);
+            tail();
+
+            try(FileChannel channel = FileChannel.open(file,
+                                      StandardOpenOption.WRITE))
+            {
+               // Anything past what could be read was cut short by a crash
+               channel.truncate(position);
+               channel.write(block(games), position);
+               channel.force(false);
+            }
+            position += BLOCK_HEADER_BYTES + games.length;
+            blocks++;
+
+            // Whoever throws away what it read needs this block again
+            if(replaced)
+               unread.add(games);
+
+            if(blocks >= COMPACT_AFTER_BLOCKS)
+               compact();
+         }
+         finally
+         {
+            exclusive.release();
+         }
+      }
+   }
+
+   /**
+    * Reads every block appended since the last read into the unread list,
+    * stopping at the first one that is incomplete or damaged. Must be
+    * called with a lock held.
+    *
+    * @throws IOException If the log cannot be read
+    */
+   private void tail() throws IOException
+   {
+      if(!exists())
+         return;
+
+      try(FileChannel channel = FileChannel.open(file,
+                                StandardOpenOption.READ))
+      {
+         ByteBuffer header = read(channel, 0, HEADER_BYTES);
+         if(header.getInt() != MAGIC || header.getInt() != VERSION)
+            throw new IOException(file + " is not a leaderboard log");
+
+         long fileGeneration = header.getLong();
+         if(fileGeneration != generation)
+         {
+            generation = fileGeneration;
+            position = HEADER_BYTES;
+            blocks = 0;
+            unread.clear();
+            replaced = true;
+         }
+
+         long size = channel.size();
+         while(position + BLOCK_HEADER_BYTES <= size)
+         {
+            ByteBuffer blockHeader = read(channel, position,
+                                          BLOCK_HEADER_BYTES);
+            int length = blockHeader.getInt();
+            int checksum = blockHeader.getInt();
+            if(length < 0 ||
+               position + BLOCK_HEADER_BYTES + length > size)
+               break;
+
+            byte[] games = read(channel, position + BLOCK_HEADER_BYTES,
+                                length).array();
+            if(checksum(games) != checksum)
+               break;
+
+            unread.add(games);
+            position += BLOCK_HEADER_BYTES + length;
+            blocks++;
+         }
+      }
+   }
+
+   /**
+    * Rewrites the log as a single block holding every game, under a new
+    * generation. Must be called with the exclusive lock held, right after
+    * this copy has read the whole log.
+    *
+    * @throws IOException If the log cannot be rewritten
+    */
+   private void compact() throws IOException
+   {
+      Leaderboard all = new Leaderboard();
+      try(FileChannel channel = FileChannel.open(file,
+                                StandardOpenOption.READ))
+      {
+         long at = HEADER_BYTES;
+         while(at < position)
+         {
+            int length = read(channel, at, BLOCK_HEADER_BYTES).getInt();
+            all.addAll(read(channel, at + BLOCK_HEADER_BYTES,
+                            length).array());
+            at += BLOCK_HEADER_BYTES + length;
+         }
+      }
+
+      byte[] games = all.toBytes();
+      create(generation + 1, games);
+
+      // This copy has already read every game in the new generation
+      generation++;
+      position = HEADER_BYTES + BLOCK_HEADER_BYTES + games.length;
+      blocks = 1;
+   }
+
+   /**
+    * Writes a new log to a temporary file and moves it over the current
+    * one. Must be called with the exclusive lock held.
+    *
+    * @param newGeneration The generation of the new log
+    * @param games The one block of games to start with, or null for none
+    * @throws IOException If the log cannot be written
+    */
+   private void create(long newGeneration, byte[] games) throws IOException
+   {
+      try(FileChannel channel = FileChannel.open(temp,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING))
+      {
+         ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+         header.putInt(MAGIC).putInt(VERSION).putLong(newGeneration);
+         header.flip();
+         channel.write(header);
+         if(games != null)
+            channel.write(block(games));
+         channel.force(true);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+   }
+
+   /**
+    * Opens the lock file, creating it if needed
+    *
+    * @return A channel on the lock file to lock
+    * @throws IOException If the lock file cannot be opened
+    */
+   private FileChannel openLock() throws IOException
+   {
+      return FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                              StandardOpenOption.READ,
+                              StandardOpenOption.WRITE);
+   }
+
+   /**
+    * Frames a block of games with its length and checksum
+    *
+    * @param games The games of the block
+    * @return The block, ready to be written
+    */
+   private static ByteBuffer block(byte[] games)
+   {
+      ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES +
+                                             games.length);
+      block.putInt(games.length).putInt(checksum(games)).put(games);
+      block.flip();
+      return block;
+   }
+
+   /**
+    * Reads a run of bytes from a file
+    *
+    * @param channel The file
+    * @param at Where in the file to start
+    * @param length The number of bytes to read
+    * @return The bytes, ready to be read from the start
+    * @throws IOException If the file ends before the run does
+    */
+   private static ByteBuffer read(FileChannel channel, long at, int length)
+         throws IOException
+   {
+      ByteBuffer bytes = ByteBuffer.allocate(length);
+      while(bytes.hasRemaining())
+         if(channel.read(bytes, at + bytes.position()) < 0)
+            throw new IOException("unexpected end of the leaderboard log");
+      bytes.flip();
+      return bytes;
+   }
+
+   /**
+    * Computes the checksum of a block of games
+    *
+    * @param games The games of the block
+    * @return The CRC-32 of the games
+    */
+   private static int checksum(byte[] games)
+   {
+      CRC32 crc = new CRC32();
+      crc.update(games);
+      return (int) crc.getValue();
+   }
+}
@@ -0,0 +1,136 @@
+package TemplarHunt;
+
+import java.util.stream.IntStream;
+
+/**
+ * Command-line benchmark for setting EnemyStore.PARALLEL_THRESHOLD. For
+ * several population sizes it times one tick of enemy movement and zone
+ * classification done sequentially and done in parallel on the common
+ * fork-join pool, then reports the smallest population at which parallel
+ * won on this machine.
+ *
+ * Since a machine with few cores may never see parallel win, it also
+ * measures the fixed cost of handing a tick of work to the pool and the
+ * cost of each enemy, and estimates the break-even population for a
+ * machine with two cores, the smallest one that would go parallel.
+ *
+ * Run with: java TemplarHunt.MovementBenchmark
+ *
+ * @author Devon Lee
+ */
+public class MovementBenchmark
+{
+   private static final int[] POPULATIONS = new int[]
+                              {1024, 4096, 16384, 65536, 262144, 1048576};
+   private static final int WARM_UP_TICKS = 50;
+   private static final int MEASURED_TICKS = 200;
+   private static final int OVERHEAD_CHUNKS = 8;
+   private static final int OVERHEAD_REPEATS = 20000;
+
+   // Parallel has to be this much faster to count as a win over noise
+   private static final double WIN_MARGIN = 0.9;
+
+   private static long sink = 0;
+
+   /**
+    * Runs the benchmark for each population size
+    *
+    * @param args Unused
+    */
+   public static void main(String[] args)
+   {
+      int cores = Runtime.getRuntime().availableProcessors();
+      System.out.println("Processors: " + cores);
+      System.out.printf("%9s %14s %14s %9s%n", "enemies", "sequential",
+                        "parallel", "speedup");
+
+      ZoneModel[] zones = new GameWorld(GameEngine.NUM_ROUNDS).getZones();
+      int crossover = -1;
+      double nanosPerEnemy = 0;
+
+      time(POPULATIONS[1], Integer.MAX_VALUE, zones);
+      time(POPULATIONS[1], 0, zones);
+
+      for(int population : POPULATIONS)
+      {
+         long sequential = time(population, Integer.MAX_VALUE, zones);
+         long parallel = time(population, 0, zones);
+         nanosPerEnemy = (double) sequential / population;
+
+         System.out.printf("%9d %14d %14d %9.2f%n", population, sequential,
+                           parallel, (double) sequential / parallel);
+
+         if(crossover < 0 && parallel < sequential * WIN_MARGIN)
+            crossover = population;
+      }
+
+      long overhead = dispatchOverhead();
+      System.out.println("Pool dispatch overhead (ns/tick): " + overhead);
+      System.out.println("Sequential cost (ns/enemy): " +
+                         String.format("%.2f", nanosPerEnemy));
+
+      if(crossover > 0)
+         System.out.println("Parallel first won at: " + crossover);
+      else
+         System.out.println("Parallel never won on this machine");
+
+      // With two cores, parallel saves half of the per-enemy work and
+      // pays the dispatch overhead twice, once for each pass
+      System.out.println("Estimated break-even on two cores: " +
+                         (long) (4 * overhead / nanosPerEnemy));
+
+      if(sink == 42)
+         System.out.println();
+   }
+
+   /**
+    * Times moving and classifying a population of enemies
+    *
+    * @param population The number of enemies
+    * @param threshold The parallel threshold to give the store
+    * @param zones The zones to classify the enemies against
+    * @return The average time of one tick in nanoseconds
+    */
+   private static long time(int population, int threshold,
+                            ZoneModel[] zones)
+   {
+      EnemyStore enemies = new EnemyStore(population);
+      for(int i = 0; i < population; i++)
+         enemies.add((i * 7919) % GameWorld.STAGE_SIZE,
+                     (i * 104729) % GameWorld.STAGE_SIZE, i % 4 == 0);
+      enemies.setParallelThreshold(threshold);
+
+      long total = 0;
+      for(int tick = 0; tick < WARM_UP_TICKS + MEASURED_TICKS; tick++)
+      {
+         long start = System.nanoTime();
+         enemies.moveAll();
+         enemies.classifyZones(zones);
+         if(tick >= WARM_UP_TICKS)
+            total += System.nanoTime() - start;
+      }
+
+      sink += enemies.getX(population - 1) +
+              enemies.getZoneMultiplier(population / 2);
+      return total / MEASURED_TICKS;
+   }
+
+   /**
+    * Measures the cost of splitting an empty tick of work across the
+    * common fork-join pool and waiting for it to finish
+    *
+    * @return The average cost in nanoseconds
+    */
+   private static long dispatchOverhead()
+   {
+      for(int i = 0; i < OVERHEAD_REPEATS; i++)
+         IntStream.range(0, OVERHEAD_CHUNKS).parallel()
+                  .forEach(chunk -> sink += chunk);
+
+      long start = System.nanoTime();
+      for(int i = 0; i < OVERHEAD_REPEATS; i++)
+         IntStream.range(0, OVERHEAD_CHUNKS).parallel()
+                  .forEach(chunk -> sink += chunk);
+      return (System.nanoTime() - start) / OVERHEAD_REPEATS;
+   }
+}
@@ -3,35 +3,30 @@ package TemplarHunt;
 import javafx.scene.layout.Pane;
 
 /**
- * Abstract class governing the different moving parts of a round of the
- * game; also handles collisions between objects that implement its
- * abstract methods
+ * Abstract class governing the on-screen view of the different moving
+ * parts of a round of the game. The state of each figure lives in a
+ * FigureModel; this class only draws it and forwards collision checks to
+ * the model.
  *
  * @author Donna Gavin
  */
 public abstract class PFigure extends Pane implements Comparable
 {
-   protected int x, y;
-   protected int width, height;
+   protected final FigureModel model;
    protected int priority;
    protected Pane pane;
+   protected double interpolation = 1.0;
 
    /**
-    * Basic parameterized constructor to specify starting location, size,
-    * and pane
+    * Basic parameterized constructor to specify the model being viewed and
+    * the pane
     *
-    * @param startX beginning x location
-    * @param startY beginning y location
-    * @param width width of object
-    * @param height height of object
+    * @param model The simulation state this figure draws
     * @param pane pane the object is on
     */
-   public PFigure(int startX, int startY, int width, int height, Pane pane)
+   public PFigure(FigureModel model, Pane pane)
    {
-       x = startX;
-       y = startY;
-       this.width = width;
-       this.height = height;
+       this.model = model;
        priority = 1;
        this.pane = pane;
    }
@@ -44,7 +39,7 @@ public abstract class PFigure extends Pane implements Comparable
     */
    public int getX()
    {
-      return x;
+      return model.getX();
    }
 
    /**
@@ -54,7 +49,50 @@ public abstract class PFigure extends Pane implements Comparable
     */
    public int getY()
    {
-      return y;
+      return model.getY();
+   }
+
+   /**
+    * Gets the simulation state drawn by this figure
+    *
+    * @return The model of the figure
+    */
+   public FigureModel getModel()
+   {
+      return model;
+   }
+
+
+   /**
+    * Sets how far between the position of the model before the last tick
+    * and its current position the next draw should place the figure
+    *
+    * @param alpha Fraction of a tick from 0 (previous position) to 1
+    *              (current position)
+    */
+   public void setInterpolation(double alpha)
+   {
+      interpolation = alpha;
+   }
+
+   /**
+    * Gets the x-coordinate at which the figure should be drawn
+    *
+    * @return The interpolated x-coordinate of the figure
+    */
+   protected double renderX()
+   {
+      return model.getRenderX(interpolation);
+   }
+
+   /**
+    * Gets the y-coordinate at which the figure should be drawn
+    *
+    * @return The interpolated y-coordinate of the figure
+    */
+   protected double renderY()
+   {
+      return model.getRenderY(interpolation);
    }
 
 
@@ -66,8 +104,7 @@ public abstract class PFigure extends Pane implements Comparable
     */
    public void move(int deltaX, int deltaY)
    {
-      x += deltaX;
-      y += deltaY;
+      model.move(deltaX, deltaY);
    }
 
    /**
@@ -109,9 +146,6 @@ public abstract class PFigure extends Pane implements Comparable
       if (otherFig == null)
          return false;
 
-      return (x + width) >= otherFig.x &&
-             (otherFig.x + otherFig.width) >= x &&
-             (y + height) >= otherFig.y &&
-             (otherFig.y + otherFig.height) >= y;
+      return model.collidedWith(otherFig.model);
    }
-}
\ No newline at end of file
+}
\ No newline at end of file
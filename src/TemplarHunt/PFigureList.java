@@ -3,34 +3,31 @@ package TemplarHunt;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 
-import java.util.ArrayList;
-
 import static TemplarHunt.GUI.STAGE_SIZE;
 
 /**
- * This class contains all of the elements of a round of the game including
- * the player, scoreboard, enemies, and zones.
+ * This class contains the on-screen figures of all of the elements of a
+ * round of the game including the player, scoreboard, enemies, and zones.
+ * The figures are views over a GameWorld, which holds the actual state of
+ * the round. Alternatively, the whole round can be drawn onto a single
+ * RoundCanvas, in which case only the player keeps a figure of its own so
+ * that it can still be moved.
  */
 public class PFigureList
 {
-   public static final int NUM_ZONES = 9;
-
-   private static final int[] ENEMIES_IN_ROUND = new int[]
-                                                     {3, 3, 4, 4, 5, 6, 6};
-   private static final int[] SPECIAL_ENEMIES_IN_ROUND = new int[]
-                                                     {0, 0, 0, 1, 1, 1, 2};
-   private static final int RANDOM_ITERATION_MAX = 100000;
+   public static final int NUM_ZONES = GameWorld.NUM_ZONES;
 
+   private final GameWorld world;
    private final Player player;
    private final Scoreboard scoreboard;
-   private final ArrayList<Enemy> enemies = new ArrayList<>();
-   private final Zone[] zones = new Zone[NUM_ZONES];
+   private final EnemyLayer enemies;
+   private final Zone[] zones;
+   private final RoundCanvas canvas;
 
    /**
-    * Constructor that creates the player and NPCs for the round; the
-    * number of figures created depends on the round
-    *
-    * Dirt file obtained from deviantart.com
+    * Constructor that creates the world for the round and a figure for
+    * each of its elements; the number of figures created depends on the
+    * round
     *
     * @param roundID The ID of the current round
     * @param pane The pane on which the figures of the list are
@@ -38,15 +35,58 @@ public class PFigureList
     */
    public PFigureList(int roundID, Pane pane)
    {
+      this(new GameWorld(roundID), pane);
+   }
+
+   /**
+    * Constructor that creates a figure for each element of an existing
+    * world
+    *
+    * @param world The world of the current round
+    * @param pane The pane on which the figures of the list are
+    *             instantiated
+    */
+   public PFigureList(GameWorld world, Pane pane)
+   {
+      this(world, pane, false);
+   }
+
+   /**
+    * Constructor that creates either a figure for each element of an
+    * existing world or a single canvas that draws all of them, and adds
+    * them to the pane from back to front
+    *
+    * Dirt file obtained from deviantart.com
+    *
+    * @param world The world of the current round
+    * @param pane The pane on which the figures of the list are
+    *             instantiated
+    * @param useCanvas True to draw the round on a single canvas, false to
+    *                  draw it with a figure per element
+    */
+   public PFigureList(GameWorld world, Pane pane, boolean useCanvas)
+   {
+      this.world = world;
+      player = new Player(world.getPlayer(), pane);
+
+      if(useCanvas)
+      {
+         canvas = new RoundCanvas(world);
+         scoreboard = null;
+         enemies = null;
+         zones = null;
+         pane.getChildren().add(canvas);
+         return;
+      }
+
       //Background for round
       try
       {
-            ImageView background = new ImageView("file:Dirt.jpg");
+            ImageView background = new ImageView(
+                       ScaledAssets.get("Dirt.jpg", STAGE_SIZE, STAGE_SIZE,
+                                        0.7));
             background.setX(0);
             background.setY(0);
-            background.setOpacity(0.7);
-            background.setFitHeight(STAGE_SIZE);
-            background.setFitWidth(STAGE_SIZE);
             pane.getChildren().add(background);
       }
       catch(Exception e)
@@ -54,42 +94,28 @@ public class PFigureList
          System.out.println("Could not find background image: " + e);
       }
 
-      player = new Player(pane);
-      scoreboard = new Scoreboard(roundID, pane);
-
-      for(int i = 0; i < ENEMIES_IN_ROUND[roundID - 1]; i++)
-         enemies.add(new Enemy(false, pane));
-      for(int i = 0; i < SPECIAL_ENEMIES_IN_ROUND[roundID - 1]; i++)
-         enemies.add(new Enemy(true, pane));
-      enemies.trimToSize();
-
+      canvas = null;
+      scoreboard = new Scoreboard(world.getScoreboard(), pane);
+      enemies = new EnemyLayer(world.getEnemies(), pane);
+      zones = new Zone[NUM_ZONES];
       for(int i = 0; i < zones.length; i++)
-         zones[i] = new Zone((i % 3) * (STAGE_SIZE / 3),
-                             (i / 3) * (STAGE_SIZE / 3),
-                              i % 3 == 1, i % 2 != 0,
-                              roundID, pane);
+         zones[i] = new Zone(world.getZones()[i], pane);
 
-      randomizeStartPositions();
+      // Added back to front: zones, enemies, scoreboard, then the player
+      pane.getChildren().addAll(zones);
+      pane.getChildren().add(enemies);
+      pane.getChildren().add(scoreboard);
+      pane.getChildren().add(player);
    }
 
    /**
-    * Uses random number to start the various figures at pseudo-random
-    * points on the board for a more interesting game experience
+    * Gets the world whose elements this list draws
+    *
+    * @return The world of the current round
     */
-   private void randomizeStartPositions()
+   public GameWorld getWorld()
    {
-      int iterations;
-
-      iterations = (int) (Math.random() * RANDOM_ITERATION_MAX);
-      for(int i = 0; i < iterations; i++)
-         scoreboard.move();
-
-      for(int i = 0; i < enemies.size(); i++)
-      {
-         iterations = (int) (Math.random() * RANDOM_ITERATION_MAX);
-         for(int j = 0; j < iterations; j++)
-            enemies.get(i).move();
-      }
+      return world;
    }
 
    /**
@@ -105,7 +131,8 @@ public class PFigureList
    /**
     * Gets the scoreboard object
     *
-    * @return The scoreboard object of the current round
+    * @return The scoreboard object of the current round, or null if the
+    * round is drawn on a canvas
     */
    public Scoreboard getScoreboard()
    {
@@ -113,20 +140,21 @@ public class PFigureList
    }
 
    /**
-    * Gets the scoreboard object
+    * Gets the layer drawing every enemy
     *
-    * @param index The index of the enemy desired
-    * @return The scoreboard object of the current round
+    * @return The enemy layer of the current round, or null if the round is
+    * drawn on a canvas
     */
-   public Enemy getEnemy(int index)
+   public EnemyLayer getEnemies()
    {
-      return enemies.get(index);
+      return enemies;
    }
 
    /**
     * Returns the zones array
     *
-    * @return The array of zones for the round
+    * @return The array of zones for the round, or null if the round is
+    * drawn on a canvas
     */
    public Zone[] getZones()
    {
@@ -141,51 +169,48 @@ public class PFigureList
     */
    public int getNumEnemies()
    {
-      return enemies.size();
+      return world.getNumEnemies();
    }
 
    /**
-    * Performs moving animation for all figures by hiding them, moving them
-    * according to their various algorithms, and then showing them again.
-    * All parameters are used for drawing the scoreboard
+    * Moves all figures one tick according to their various algorithms
+    */
+   public void moveAll()
+   {
+      world.step();
+   }
+
+   /**
+    * Redraws all figures in their current positions. The figures keep
+    * their nodes from frame to frame and only move them or update what has
+    * changed. All parameters besides the interpolation are used for
+    * drawing the scoreboard
     *
+    * @param alpha How far between their positions before and after the
+    *              last tick to draw the figures, from 0 to 1
     * @param clock The time left in the round
     * @param roundScore The score achieved in the current round
     * @param totalScore The score achieved in the current game
     * @param highScore The highest score achieved in all games
     */
-   public void hideMoveDrawAll(int clock, int roundScore,
-                               int totalScore, int highScore)
+   public void hideDrawAll(double alpha, int clock, int roundScore,
+                           int totalScore, int highScore)
    {
-      for(int i = 0; i < enemies.size(); i++)
+      if(canvas != null)
       {
-         enemies.get(i).hide();
-         enemies.get(i).move();
-         enemies.get(i).draw();
-         enemies.get(i).toFront();
+         canvas.draw(alpha, clock, roundScore, totalScore, highScore);
+         return;
       }
 
+      enemies.draw(alpha);
+
       for(int i = 0; i < zones.length; i++)
       {
-         zones[i].hide();
-         zones[i].move();
+         zones[i].setInterpolation(alpha);
          zones[i].draw();
       }
 
-      scoreboard.hide();
-      scoreboard.move();
+      scoreboard.setInterpolation(alpha);
       scoreboard.drawScoreboard(clock, roundScore, totalScore, highScore);
-      scoreboard.toFront();
-
-      player.toFront();
-   }
-
-   /**
-    * Resets the static logic variables for the enemies and zones
-    */
-   public void resetFigCount()
-   {
-      Enemy.resetFigureAndTagCount();
-      Zone.resetNumZones();
    }
 }
@@ -0,0 +1,30 @@
+package TemplarHunt;
+
+/**
+ * A source of moves for the player when no one is at the keyboard, such
+ * as a script or a bot. It is asked for a move every TICKS_PER_MOVE
+ * ticks, about as often as a held key repeats, and answers with one of
+ * the four directions or with STAY.
+ *
+ * @author Devon Lee
+ */
+public interface PlayerInput
+{
+   // A held key repeats about 25 times a second, every other tick
+   int TICKS_PER_MOVE = 2;
+
+   char UP = 'U';
+   char DOWN = 'D';
+   char LEFT = 'L';
+   char RIGHT = 'R';
+   char STAY = '.';
+
+   /**
+    * Picks the next move of the player
+    *
+    * @param world The round being played
+    * @param engine The engine of the round, for its timers and scores
+    * @return UP, DOWN, LEFT, RIGHT, or STAY
+    */
+   char nextMove(GameWorld world, GameEngine engine);
+}
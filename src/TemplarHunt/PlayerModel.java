@@ -0,0 +1,106 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+
+/**
+ * Simulation state of the player character; handles the movement and
+ * paralysis of that character
+ *
+ * @author Nathan Laures
+ * @author Donna Gavin
+ */
+public class PlayerModel extends FigureModel
+{
+   public static final int SIZE = 80;
+   public static final int MOVE_DISTANCE = 50; // Per key press
+   private static final int PARALYZE_TIME = 1000;
+
+   private boolean paralyzed;
+   private long paralyzeCounter;
+
+   /**
+    * Constructor for the player character; starts in the middle of the
+    * playfield
+    */
+   public PlayerModel()
+   {
+      super((STAGE_SIZE / 2) - (SIZE / 2), (STAGE_SIZE / 2) - (SIZE / 2),
+            SIZE, SIZE);
+
+      paralyzed = false;
+   }
+
+   /**
+    * Moves the character by the specified amount in the x and y
+    * directions, wrapping around the edges of the playfield
+    *
+    * @param deltaX Change in x
+    * @param deltaY Change in y
+    */
+   public void move(int deltaX, int deltaY)
+   {
+      super.move(deltaX, deltaY);
+      if(x < -width / 2)
+         x = (STAGE_SIZE - width / 2);
+      else if((x + width / 2) > STAGE_SIZE)
+         x = -width / 2;
+      if(y < -height / 2)
+         y = (STAGE_SIZE - height / 2);
+      else if ((y + height / 2) > STAGE_SIZE)
+         y = -height / 2;
+   }
+
+   /**
+    * Starts a period during which the calling figure is paralyzed and
+    * therefore will not respond to user input
+    *
+    * @param gameTime The current game time of the round in ms
+    */
+   public void paralyze(long gameTime)
+   {
+      paralyzed = true;
+      paralyzeCounter = gameTime;
+   }
+
+   /**
+    * Evaluates whether the calling figure is paralyzed
+    *
+    * @param gameTime The current game time of the round in ms
+    * @return True if the calling figure is paralyzed, false otherwise
+    */
+   public boolean isParalyzed(long gameTime)
+   {
+      if(gameTime - paralyzeCounter > PARALYZE_TIME)
+         paralyzed = false;
+      return paralyzed;
+   }
+
+   /**
+    * Writes the position and paralysis of the player to a snapshot
+    *
+    * @param out The snapshot being written
+    */
+   @Override
+   public void save(CompactBuffer out)
+   {
+      super.save(out);
+      out.writeBoolean(paralyzed);
+      out.writeSigned(paralyzeCounter);
+   }
+
+   /**
+    * Puts the player back as it was in a snapshot
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   @Override
+   public void restore(CompactBuffer in) throws IOException
+   {
+      super.restore(in);
+      paralyzed = in.readBoolean();
+      paralyzeCounter = in.readSigned();
+   }
+}
@@ -6,8 +6,6 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
-import static TemplarHunt.GUI.NUM_ROUNDS;
-
 /**
  * Child of MenuScreen that displays the statistics about each round
  *
@@ -42,6 +40,7 @@ public class PostRoundScreen extends MenuScreen
                                  Color.MEDIUMSEAGREEN};
 
    private final Label[] roundStatistics;
+   private String endText = ROUND_END_TEXT;
 
    /**
     * Sets up title text, stat list, and buttons for the end of a round
@@ -87,21 +86,38 @@ public class PostRoundScreen extends MenuScreen
       }
    }
 
+   /**
+    * Sets the message shown after the last round of the game
+    *
+    * @param text The message to show, or null for the default one
+    */
+   public void setEndText(String text)
+   {
+      if(text == null)
+         endText = ROUND_END_TEXT;
+      else
+         endText = text;
+   }
+
    /**
     * Updates the data fields of the screen
     * @param roundID The current round
     * @param roundScore The score achieved this round
     * @param totalScore The total score achieved this game
+    * @param scoreThreshold The score needed to pass this round
     * @param passedLevel If the player passed the level
+    * @param lastRound If this was the last round of the game
     */
    public void updateScores(int roundID, int roundScore, int totalScore,
-                            boolean passedLevel)
+                            int scoreThreshold, boolean passedLevel,
+                            boolean lastRound)
    {
       title.setText("End of Round " + roundID);
 
       roundStatistics[0].setText(ROUND_STAT_TEXT[0] + roundScore);
       roundStatistics[1].setText(ROUND_STAT_TEXT[1] +
-                         GameEngine.getScoreThreshold(roundID));
+                                 (scoreThreshold == Integer.MIN_VALUE
+                                  ? "none" : scoreThreshold));
       if(passedLevel)
       {
          background.setFill(Color.LIGHTGREEN);
@@ -119,11 +135,11 @@ public class PostRoundScreen extends MenuScreen
       }
       roundStatistics[3].setText(ROUND_STAT_TEXT[3] + totalScore);
 
-      if(roundID == NUM_ROUNDS)
+      if(lastRound)
       {
          background.setFill(Color.LIGHTBLUE);
          roundStatistics[1].setText(ROUND_STAT_TEXT[1] + "none");
-         roundStatistics[2].setText(ROUND_END_TEXT);
+         roundStatistics[2].setText(endText);
 
          buttons.get(0).setVisible(false);
          buttonLabels.get(0).setVisible(false);
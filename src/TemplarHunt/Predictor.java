@@ -0,0 +1,393 @@
+package TemplarHunt;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static TemplarHunt.GameWorld.NUM_ZONES;
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Answers where the zones and enemies of a round will be at a later tick
+ * without stepping the round, for bots and hints that look ahead.
+ *
+ * Enemies bounce at one pixel per tick on each axis, so their positions
+ * come straight from BounceSolver in constant time. Zones follow a
+ * different pattern in each round, driven by counters that they share,
+ * which has no simple closed form; but it depends on nothing but the
+ * round and the axis its zones start out on, and every round falls into
+ * a cycle of a few thousand ticks at most. The zones of each round are
+ * moved once, until they come back to a phase they were in before, and
+ * their positions up to then kept in a table that all rounds in the
+ * program share; a later tick is looked up at the same point of the
+ * cycle. Any tick takes constant time and the
+ * tables never grow. The one limit is round 5, whose counters overflow in
+ * ZoneModel.move some 15 million ticks (80 hours) into a round; its
+ * predictions stop holding past then.
+ *
+ * Ticks count the steps since the round was created, as GameWorld.getTick
+ * does.
+ *
+ * Run with: java TemplarHunt.Predictor, which checks the predictions
+ * against stepped rounds
+ *
+ * @author Devon Lee
+ */
+public class Predictor
+{
+   private static final int LIMIT = STAGE_SIZE - EnemyStore.SIZE;
+   private static final int ROUND_TICKS = GameEngine.ROUND_TIME_SEC *
+                                          1000 / GameWorld.TICK_MILLIS + 1;
+
+   // The cycles checked by main, after each round has settled into one,
+   // and how far main moves zones on their own to check a far tick
+   private static final int PERIODS_CHECKED = 3;
+   private static final int FAR_TICKS = 10000000;
+
+   // One table for each regular round and starting axis of its zones,
+   // built the first time it is needed
+   private static final Trajectory[][] trajectories =
+                                       new Trajectory[GameEngine.NUM_ROUNDS]
+                                                     [2];
+
+   private final GameWorld world;
+   private final Trajectory trajectory;
+   private final int[] zoneValues = new int[NUM_ZONES];
+
+   /**
+    * Creates a predictor for a round; it keeps reading the current state
+    * of the round, so one predictor serves the whole round
+    *
+    * @param world The round to predict
+    */
+   public Predictor(GameWorld world)
+   {
+      this.world = world;
+      trajectory = trajectoryOf(world.getRoundID(),
+                                world.getZones()[0].getPattern()
+                                                   .startedMovingX());
+
+      ZoneModel[] zones = world.getZones();
+      for(int i = 0; i < zones.length; i++)
+         zoneValues[i] = zones[i].isHayZone() ? -1 : 1;
+   }
+
+   /**
+    * Gets the x-coordinate of a zone at a tick
+    *
+    * @param zone The index of the zone
+    * @param tick The tick, now or later
+    * @return The x-coordinate of the zone at that tick
+    */
+   public int getZoneX(int zone, long tick)
+   {
+      return trajectory.positionOf(zone, tick, 0);
+   }
+
+   /**
+    * Gets the y-coordinate of a zone at a tick
+    *
+    * @param zone The index of the zone
+    * @param tick The tick, now or later
+    * @return The y-coordinate of the zone at that tick
+    */
+   public int getZoneY(int zone, long tick)
+   {
+      return trajectory.positionOf(zone, tick, 1);
+   }
+
+   /**
+    * Gets the x-coordinate of an enemy at a tick. Special enemies also
+    * turn at random, so for them this is only where they would be if they
+    * did not turn.
+    *
+    * @param enemy The index of the enemy
+    * @param tick The tick, now or later
+    * @return The x-coordinate of the enemy at that tick
+    */
+   public int getEnemyX(int enemy, long tick)
+   {
+      EnemyStore enemies = world.getEnemies();
+      return BounceSolver.positionAfter(enemies.getX(enemy),
+                                        enemies.getXVel(enemy), LIMIT,
+                                        stepsUntil(tick));
+   }
+
+   /**
+    * Gets the y-coordinate of an enemy at a tick. Special enemies also
+    * turn at random, so for them this is only where they would be if they
+    * did not turn.
+    *
+    * @param enemy The index of the enemy
+    * @param tick The tick, now or later
+    * @return The y-coordinate of the enemy at that tick
+    */
+   public int getEnemyY(int enemy, long tick)
+   {
+      EnemyStore enemies = world.getEnemies();
+      return BounceSolver.positionAfter(enemies.getY(enemy),
+                                        enemies.getYVel(enemy), LIMIT,
+                                        stepsUntil(tick));
+   }
+
+   /**
+    * Gets the zone multiplier an enemy would score if it were tagged at a
+    * tick, by the same rule as EnemyStore.classifyZones
+    *
+    * @param enemy The index of the enemy
+    * @param tick The tick, now or later
+    * @return The multiplier of the zone(s) the enemy will be in, +1/-1
+    *         per zone
+    */
+   public int getZoneMultiplier(int enemy, long tick)
+   {
+      int xCenter = getEnemyX(enemy, tick) + EnemyStore.SIZE / 2;
+      int yCenter = getEnemyY(enemy, tick) + EnemyStore.SIZE / 2;
+
+      int zoneMultiplier = 0;
+      for(int z = 0; z < NUM_ZONES; z++)
+      {
+         int zoneX = getZoneX(z, tick);
+         int zoneY = getZoneY(z, tick);
+         if(xCenter > zoneX && xCenter < zoneX + ZONE_SIZE &&
+            yCenter > zoneY && yCenter < zoneY + ZONE_SIZE)
+            zoneMultiplier += zoneValues[z];
+      }
+      return zoneMultiplier;
+   }
+
+   /**
+    * Counts the steps from the current tick of the round to a later one
+    *
+    * @param tick The later tick
+    * @return The number of steps until then
+    * @throws IllegalArgumentException If the tick has already passed
+    */
+   private long stepsUntil(long tick)
+   {
+      long steps = tick - world.getTick();
+      if(steps < 0)
+         throw new IllegalArgumentException("tick " + tick +
+                                            " has already passed");
+      return steps;
+   }
+
+   /**
+    * Gets the shared table of zone positions for a round, building it the
+    * first time
+    *
+    * @param roundID The ID of the round
+    * @param movingX True if the zones of the round start out moving across
+    * @return The table of the round
+    */
+   private static synchronized Trajectory trajectoryOf(int roundID,
+                                                       boolean movingX)
+   {
+      int zoneRound = Math.min(roundID, GameEngine.NUM_ROUNDS);
+      int axis = movingX ? 1 : 0;
+      if(trajectories[zoneRound - 1][axis] == null)
+         trajectories[zoneRound - 1][axis] = new Trajectory(zoneRound,
+                                                            movingX);
+      return trajectories[zoneRound - 1][axis];
+   }
+
+   /**
+    * Checks the predictions for every round, and one round of endless
+    * mode, with its zones starting out on either axis, against a copy of
+    * the round that is stepped: every zone, and
+    * every regular enemy and the zones it stands in, at every tick until
+    * the zones have gone round their cycle PERIODS_CHECKED times, or for
+    * a whole round if that is longer; then the zones alone at FAR_TICKS
+    *
+    * @param args Unused
+    */
+   public static void main(String[] args)
+   {
+      long seed = GameSession.newSeed();
+      int failures = 0;
+      for(int roundID = 1; roundID <= GameEngine.NUM_ROUNDS + 1; roundID++)
+         for(boolean movingX : new boolean[] {false, true})
+            failures += check(roundID, movingX, seed);
+      System.out.println(failures == 0 ? "Every prediction matched"
+                                       : failures + " predictions failed");
+   }
+
+   /**
+    * Checks the predictions for one round, as main describes, and prints
+    * how it went
+    *
+    * @param roundID The ID of the round
+    * @param movingX True if the zones start out moving across
+    * @param seed The seed to place the round by
+    * @return The number of predictions that were wrong
+    */
+   private static int check(int roundID, boolean movingX, long seed)
+   {
+      GameWorld start = newWorld(roundID, movingX, seed);
+      GameWorld stepped = newWorld(roundID, movingX, seed);
+      Predictor predictor = new Predictor(start);
+      Trajectory trajectory = predictor.trajectory;
+      long ticks = Math.max(ROUND_TICKS, trajectory.start +
+                            (long) PERIODS_CHECKED * trajectory.period);
+
+      int mismatches = 0;
+      for(long tick = 1; tick <= ticks; tick++)
+      {
+         stepped.step();
+         mismatches += compare(predictor, stepped, tick);
+      }
+
+      ZoneModel[] zones = GameWorld.newZones(roundID,
+                                             new ZonePattern(movingX));
+      for(int tick = 0; tick < FAR_TICKS; tick++)
+         for(ZoneModel zone : zones)
+            zone.move();
+      for(int z = 0; z < zones.length; z++)
+         if(predictor.getZoneX(z, FAR_TICKS) != zones[z].getX() ||
+            predictor.getZoneY(z, FAR_TICKS) != zones[z].getY())
+            mismatches++;
+
+      System.out.println("Round " + roundID + ", starting " +
+                         (movingX ? "across" : "up and down") +
+                         ": zones repeat every " +
+                         trajectory.period + " ticks from tick " +
+                         trajectory.start + "; " + ticks +
+                         " ticks and tick " + FAR_TICKS +
+                         " checked, " + mismatches +
+                         " mismatches");
+      return mismatches;
+   }
+
+   /**
+    * Creates a round for main, placed by a seed so that two rounds of the
+    * same seed start out alike
+    *
+    * @param roundID The ID of the round; past the last regular round, a
+    *                round of endless mode
+    * @param movingX True if the zones start out moving across
+    * @param seed The seed
+    * @return The round
+    */
+   private static GameWorld newWorld(int roundID, boolean movingX,
+                                     long seed)
+   {
+      if(roundID <= GameEngine.NUM_ROUNDS)
+         return new GameWorld(roundID, new GameRandom(seed),
+                              new ZonePattern(movingX));
+      return new GameWorld(roundID, EndlessMode.getNumEnemies(roundID),
+                           EndlessMode.getNumSpecialEnemies(roundID),
+                           new GameRandom(seed), new ZonePattern(movingX));
+   }
+
+   /**
+    * Compares what a predictor made at tick 0 says about a tick with a
+    * round stepped up to it; special enemies turn at random, so they are
+    * left out
+    *
+    * @param predictor The predictor of the round at tick 0
+    * @param stepped The round, stepped to the tick
+    * @param tick The tick
+    * @return The number of predictions that were wrong
+    */
+   private static int compare(Predictor predictor, GameWorld stepped,
+                              long tick)
+   {
+      int mismatches = 0;
+      ZoneModel[] zones = stepped.getZones();
+      for(int z = 0; z < zones.length; z++)
+         if(predictor.getZoneX(z, tick) != zones[z].getX() ||
+            predictor.getZoneY(z, tick) != zones[z].getY())
+            mismatches++;
+
+      EnemyStore enemies = stepped.getEnemies();
+      for(int i = 0; i < enemies.size(); i++)
+         if(!enemies.isSpecialEnemy(i) &&
+            (predictor.getEnemyX(i, tick) != enemies.getX(i) ||
+             predictor.getEnemyY(i, tick) != enemies.getY(i) ||
+             predictor.getZoneMultiplier(i, tick) !=
+             enemies.getZoneMultiplier(i)))
+            mismatches++;
+      return mismatches;
+   }
+
+   /**
+    * The positions of the zones of a round at every tick of its cycle,
+    * worked out by moving a set of zones of its own until they come back
+    * to a phase they were in before. The ticks before the cycle starts
+    * are kept too, since some rounds take a while to settle into it. The
+    * table never changes once built, so lookups need no lock.
+    */
+   private static class Trajectory
+   {
+      private static final int STRIDE = 2 * NUM_ZONES;
+
+      // Far longer than the cycle of any round, which is a few thousand
+      // ticks; reaching it means the zones have started moving in a way
+      // that never repeats
+      private static final int MAX_TICKS = 1 << 20;
+
+      private final int[] positions;
+      private final int start;
+      private final int period;
+
+      /**
+       * Moves the zones of a round until they repeat a phase
+       *
+       * @param roundID The ID of the round
+       * @param movingX True if the zones start out moving across
+       * @throws IllegalStateException If the zones do not repeat within
+       *                               MAX_TICKS ticks
+       */
+      Trajectory(int roundID, boolean movingX)
+      {
+         ZoneModel[] zones = GameWorld.newZones(roundID,
+                                                new ZonePattern(movingX));
+         HashMap<ByteBuffer, Integer> phases = new HashMap<>();
+         int[] table = new int[64 * STRIDE];
+
+         for(int tick = 0; tick < MAX_TICKS; tick++)
+         {
+            CompactBuffer phase = new CompactBuffer();
+            for(ZoneModel zone : zones)
+               zone.savePhase(phase);
+            Integer first = phases.putIfAbsent(
+                            ByteBuffer.wrap(phase.toBytes()), tick);
+            if(first != null)
+            {
+               positions = Arrays.copyOf(table, tick * STRIDE);
+               start = first;
+               period = tick - first;
+               return;
+            }
+
+            if((tick + 1) * STRIDE > table.length)
+               table = Arrays.copyOf(table, table.length * 2);
+            for(int z = 0; z < zones.length; z++)
+            {
+               table[tick * STRIDE + 2 * z] = zones[z].getX();
+               table[tick * STRIDE + 2 * z + 1] = zones[z].getY();
+            }
+            for(ZoneModel zone : zones)
+               zone.move();
+         }
+         throw new IllegalStateException("the zones of round " + roundID +
+                                         " do not repeat");
+      }
+
+      /**
+       * Gets a coordinate of a zone at a tick
+       *
+       * @param zone The index of the zone
+       * @param tick The tick
+       * @param axis 0 for the x-coordinate, 1 for the y-coordinate
+       * @return The coordinate
+       */
+      int positionOf(int zone, long tick, int axis)
+      {
+         long row = tick < start ? tick
+                                 : start + (tick - start) % period;
+         return positions[(int) row * STRIDE + 2 * zone + axis];
+      }
+   }
+}
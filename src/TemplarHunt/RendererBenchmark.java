@@ -0,0 +1,139 @@
+package TemplarHunt;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+
+/**
+ * Benchmark comparing the node-based figures of PFigureList with the
+ * single RoundCanvas at growing enemy counts. Each case runs a round in a
+ * window for a fixed number of frames, stepping the world once per frame,
+ * and measures the average time between the starts of frames, which covers
+ * the game logic, the scene graph, and the actual rendering. Needs a
+ * display; the results are printed once every case has run.
+ *
+ * Run with: java TemplarHunt.RendererBenchmark
+ *
+ * @author Devon Lee
+ */
+public class RendererBenchmark extends Application
+{
+   private static final int[] POPULATIONS = new int[]
+                              {100, 1000, 4000, 16000, 64000};
+   private static final int WARM_UP_FRAMES = 60;
+   private static final int MEASURED_FRAMES = 300;
+   private static final double NANOS_PER_MILLI = 1000000.0;
+
+   private final Pane root = new Pane();
+   private final double[][] results = new double[POPULATIONS.length][2];
+
+   private int population = 0;
+   private int renderer = 0;
+   private PFigureList figs;
+   private int frames;
+   private long previousFrame;
+   private long measured;
+
+   /**
+    * Opens the window and starts running the cases one after another
+    *
+    * @param stage The window to draw the rounds in
+    */
+   @Override
+   public void start(Stage stage)
+   {
+      stage.setTitle("Renderer Benchmark");
+      stage.setScene(new Scene(root, STAGE_SIZE, STAGE_SIZE));
+      stage.setResizable(false);
+      stage.show();
+
+      setUpCase();
+
+      new AnimationTimer()
+      {
+         @Override
+         public void handle(long now)
+         {
+            frame();
+         }
+      }.start();
+   }
+
+   /**
+    * Creates the round of the current case, replacing the previous one
+    */
+   private void setUpCase()
+   {
+      int enemies = POPULATIONS[population];
+      GameWorld world = new GameWorld(GameEngine.NUM_ROUNDS, enemies,
+                                      enemies / 4);
+
+      Pane pane = new Pane();
+      root.getChildren().setAll(pane);
+      figs = new PFigureList(world, pane, renderer == 1);
+
+      frames = 0;
+      measured = 0;
+      previousFrame = System.nanoTime();
+   }
+
+   /**
+    * Steps and draws the round of the current case, timing the frame, and
+    * moves on to the next case once enough frames have been measured
+    */
+   private void frame()
+   {
+      long now = System.nanoTime();
+      if(frames >= WARM_UP_FRAMES)
+         measured += now - previousFrame;
+      previousFrame = now;
+      frames++;
+
+      figs.moveAll();
+      figs.hideDrawAll(1.0, 60, 0, 0, 0);
+
+      if(frames == WARM_UP_FRAMES + MEASURED_FRAMES)
+      {
+         results[population][renderer] = measured / NANOS_PER_MILLI /
+                                          MEASURED_FRAMES;
+         renderer = (renderer + 1) % 2;
+         if(renderer == 0)
+            population++;
+
+         if(population < POPULATIONS.length)
+            setUpCase();
+         else
+         {
+            printResults();
+            Platform.exit();
+         }
+      }
+   }
+
+   /**
+    * Prints the average frame time of each case in milliseconds
+    */
+   private void printResults()
+   {
+      System.out.printf("%8s %14s %14s%n", "enemies", "nodes (ms)",
+                        "canvas (ms)");
+      for(int i = 0; i < POPULATIONS.length; i++)
+         System.out.printf("%8d %14.2f %14.2f%n", POPULATIONS[i],
+                           results[i][0], results[i][1]);
+   }
+
+   /**
+    * Launches the benchmark
+    *
+    * @param args Unused
+    */
+   public static void main(String[] args)
+   {
+      launch(args);
+   }
+}
@@ -0,0 +1,345 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A game recorded by ReplayRecorder, read back so it can be played again:
+ * headless, with play or a ReplayPlayer, or in the GUI, which presses its
+ * keys for the player. Either way the game goes tick for tick as it did
+ * when it was recorded, so a bug seen during the game shows up again in
+ * the replay. The snapshots recorded with the keys let a replay start
+ * from any tick, such as when it is scrubbed through.
+ *
+ * Run with: java TemplarHunt.Replay <file>
+ *
+ * @author Devon Lee
+ */
+public class Replay
+{
+   private static final int TIMED_SEEKS = 200;
+   private static final double NANOS_PER_MILLI = 1000000.0;
+
+   private final long seed;
+   private long[] ticks = new long[64];
+   private int[] keyCodes = new int[64];
+   private int size = 0;
+   private long[] snapshotTicks = new long[0];
+   private byte[][] snapshots = new byte[0][];
+
+   private boolean finished = false;
+   private long finalTick;
+   private int finalScore;
+   private int finalRound;
+
+   /**
+    * Reads a replay from its bytes
+    *
+    * @param bytes The bytes written by ReplayRecorder
+    * @throws IOException If the bytes are not a replay
+    */
+   private Replay(byte[] bytes) throws IOException
+   {
+      CompactBuffer in = new CompactBuffer(bytes);
+      if(in.readInt() != ReplayRecorder.MAGIC)
+         throw new IOException("not a replay");
+      int version = in.readByte();
+      if(version < ReplayRecorder.VERSION)
+         throw new IOException("replay from an older version of the game");
+      if(version > ReplayRecorder.VERSION)
+         throw new IOException("unknown replay version " + version);
+      seed = in.readLong();
+
+      long tick = 0;
+      while(in.hasRemaining() && !finished)
+      {
+         tick += in.readVarint();
+         int keyCode = (int) in.readVarint();
+         if(keyCode == 0)
+         {
+            finished = true;
+            finalTick = tick;
+            finalScore = (int) in.readSigned();
+            finalRound = (int) in.readVarint();
+            readSnapshots(in);
+         }
+         else
+         {
+            if(size == ticks.length)
+            {
+               ticks = Arrays.copyOf(ticks, size * 2);
+               keyCodes = Arrays.copyOf(keyCodes, size * 2);
+            }
+            ticks[size] = tick;
+            keyCodes[size++] = keyCode;
+         }
+      }
+   }
+
+   /**
+    * Reads the snapshots that follow the end of the keys
+    *
+    * @param in The replay, read up to the number of snapshots
+    * @throws IOException If the replay ends before the snapshots do
+    */
+   private void readSnapshots(CompactBuffer in) throws IOException
+   {
+      int count = (int) in.readVarint();
+      if(count < 0 || count > in.size())
+         throw new IOException("bad number of snapshots in the replay");
+
+      snapshotTicks = new long[count];
+      snapshots = new byte[count][];
+      for(int i = 0; i < count; i++)
+      {
+         snapshotTicks[i] = in.readVarint();
+         snapshots[i] = in.readBytes();
+      }
+   }
+
+   /**
+    * Reads a replay from its bytes
+    *
+    * @param bytes The bytes written by ReplayRecorder
+    * @return The replay
+    * @throws IOException If the bytes are not a replay
+    */
+   public static Replay fromBytes(byte[] bytes) throws IOException
+   {
+      return new Replay(bytes);
+   }
+
+   /**
+    * Reads a replay from a file
+    *
+    * @param file The file saved by ReplayRecorder
+    * @return The replay
+    * @throws IOException If the file cannot be read or is not a replay
+    */
+   public static Replay read(Path file) throws IOException
+   {
+      return new Replay(Files.readAllBytes(file));
+   }
+
+   /**
+    * Plays the whole replay without a window
+    *
+    * @return The game as it stands at the end of the replay
+    */
+   public HeadlessGame play()
+   {
+      ReplayPlayer player = new ReplayPlayer(this);
+      while(player.step());
+      return player.getGame();
+   }
+
+   /**
+    * Gets the seed of the recorded game
+    *
+    * @return The seed
+    */
+   public long getSeed()
+   {
+      return seed;
+   }
+
+   /**
+    * Counts the keys pressed in the recorded game
+    *
+    * @return The number of keys
+    */
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * Gets the tick a key was pressed on
+    *
+    * @param i The index of the key, in the order they were pressed
+    * @return The number of ticks played in the game when it was pressed
+    */
+   public long getTick(int i)
+   {
+      return ticks[i];
+   }
+
+   /**
+    * Gets the code of a key
+    *
+    * @param i The index of the key, in the order they were pressed
+    * @return The code of the key, as the GUI reports it
+    */
+   public int getKeyCode(int i)
+   {
+      return keyCodes[i];
+   }
+
+   /**
+    * Finds the first key pressed on or after a tick
+    *
+    * @param tick The tick
+    * @return The index of the key, or size() if there is none
+    */
+   public int firstKeyAt(long tick)
+   {
+      int low = 0;
+      int high = size;
+      while(low < high)
+      {
+         int middle = (low + high) >>> 1;
+         if(ticks[middle] < tick)
+            low = middle + 1;
+         else
+            high = middle;
+      }
+      return low;
+   }
+
+   /**
+    * Finds the last snapshot taken on or before a tick
+    *
+    * @param tick The tick
+    * @return The index of the snapshot, or -1 if there is none
+    */
+   public int lastSnapshotAt(long tick)
+   {
+      int low = 0;
+      int high = snapshotTicks.length;
+      while(low < high)
+      {
+         int middle = (low + high) >>> 1;
+         if(snapshotTicks[middle] <= tick)
+            low = middle + 1;
+         else
+            high = middle;
+      }
+      return low - 1;
+   }
+
+   /**
+    * Gets the tick a snapshot was taken at
+    *
+    * @param i The index of the snapshot, in the order they were taken
+    * @return The number of ticks played in the game when it was taken
+    */
+   public long getSnapshotTick(int i)
+   {
+      return snapshotTicks[i];
+   }
+
+   /**
+    * Reads a snapshot so it can be put back
+    *
+    * @param i The index of the snapshot, in the order they were taken
+    * @return The snapshot
+    * @throws IOException If the snapshot is not readable
+    */
+   public GameSnapshot getSnapshot(int i) throws IOException
+   {
+      return new GameSnapshot(snapshots[i]);
+   }
+
+   /**
+    * Reports whether the recording went on until the game was over
+    *
+    * @return True if the final score and round were recorded
+    */
+   public boolean isFinished()
+   {
+      return finished;
+   }
+
+   /**
+    * Gets the number of ticks played in the recorded game
+    *
+    * @return The number of ticks, or the tick of the last key if the
+    *         recording was cut short
+    */
+   public long getFinalTick()
+   {
+      return finished ? finalTick : size > 0 ? ticks[size - 1] : 0;
+   }
+
+   /**
+    * Gets the final score of the recorded game
+    *
+    * @return The final score, or 0 if the recording was cut short
+    */
+   public int getFinalScore()
+   {
+      return finalScore;
+   }
+
+   /**
+    * Gets the last round reached in the recorded game
+    *
+    * @return The round, or 0 if the recording was cut short
+    */
+   public int getFinalRound()
+   {
+      return finalRound;
+   }
+
+   /**
+    * Plays a replay without a window and reports whether it ended as the
+    * recorded game did, then times seeking to random ticks of it
+    *
+    * @param args The replay file
+    */
+   public static void main(String[] args)
+   {
+      if(args.length < 1)
+      {
+         System.out.println("Usage: java TemplarHunt.Replay <file>");
+         return;
+      }
+
+      try
+      {
+         Replay replay = read(Paths.get(args[0]));
+         long start = System.nanoTime();
+         HeadlessGame game = replay.play();
+         long elapsed = System.nanoTime() - start;
+
+         GameEngine engine = game.getEngine();
+         System.out.printf("Replayed %d keys over %d ticks in %.1f ms%n",
+                           replay.size(), game.getGameTicks(),
+                           elapsed / NANOS_PER_MILLI);
+         System.out.println("Replayed: " + engine.getTotalScore() +
+                            " points in round " + engine.getRoundID());
+         if(replay.isFinished())
+            System.out.println("Recorded: " + replay.getFinalScore() +
+                               " points in round " +
+                               replay.getFinalRound());
+
+         ReplayPlayer player = new ReplayPlayer(replay);
+         Random random = new Random();
+         long total = 0;
+         long worst = 0;
+         for(int i = 0; i < TIMED_SEEKS; i++)
+         {
+            long tick = (long) (random.nextDouble() *
+                                (replay.getFinalTick() + 1));
+            start = System.nanoTime();
+            player.seek(tick);
+            elapsed = System.nanoTime() - start;
+            total += elapsed;
+            worst = Math.max(worst, elapsed);
+         }
+         System.out.printf("%d seeks with %d snapshots: average %.3f ms, " +
+                           "worst %.3f ms%n", TIMED_SEEKS,
+                           replay.snapshotTicks.length,
+                           total / NANOS_PER_MILLI / TIMED_SEEKS,
+                           worst / NANOS_PER_MILLI);
+      }
+      catch(IOException e)
+      {
+         System.out.println("The replay could not be read: " + e);
+      }
+   }
+}
@@ -0,0 +1,111 @@
+package TemplarHunt;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+
+import java.util.function.LongConsumer;
+
+import static TemplarHunt.GUI.STAGE_SIZE;
+
+/**
+ * The strip along the bottom of the window while a replay plays: a scrub
+ * bar across the whole game, which seeks to wherever it is dragged or
+ * clicked, and the round and time the replay is at
+ *
+ * @author Devon Lee
+ */
+public class ReplayBar
+{
+   private static final int HEIGHT = 40;
+   private static final int MARGIN = 10;
+   private static final int LABEL_WIDTH = 230;
+   private static final double BACKGROUND_OPACITY = 0.6;
+   private static final int TICKS_PER_SEC = 1000 / GameWorld.TICK_MILLIS;
+
+   private final Rectangle background;
+   private final Slider slider;
+   private final Label label;
+   private final long lastTick;
+
+   // Set while the replay moves the slider, which is not a seek
+   private boolean updating = false;
+
+   /**
+    * Sets up the strip on top of everything else in the pane
+    *
+    * @param pane The pane on which the strip is placed
+    * @param lastTick The last tick of the replay
+    * @param onSeek Called with the tick the user picks on the scrub bar
+    */
+   public ReplayBar(Pane pane, long lastTick, LongConsumer onSeek)
+   {
+      this.lastTick = lastTick;
+
+      background = new Rectangle(0, STAGE_SIZE - HEIGHT, STAGE_SIZE,
+                                 HEIGHT);
+      background.setFill(Color.BLACK);
+      background.setOpacity(BACKGROUND_OPACITY);
+
+      slider = new Slider(0, Math.max(lastTick, 1), 0);
+      slider.setLayoutX(MARGIN);
+      slider.setLayoutY(STAGE_SIZE - HEIGHT + MARGIN);
+      slider.setPrefWidth(STAGE_SIZE - LABEL_WIDTH - 3 * MARGIN);
+      slider.setFocusTraversable(false);
+      slider.valueProperty().addListener((observable, oldValue, newValue) ->
+      {
+         if(!updating)
+            onSeek.accept(newValue.longValue());
+      });
+
+      label = new Label();
+      label.setFont(Font.font("Times New Roman", 16));
+      label.setTextFill(Color.WHITE);
+      label.setLayoutX(STAGE_SIZE - LABEL_WIDTH - MARGIN);
+      label.setLayoutY(STAGE_SIZE - HEIGHT + MARGIN);
+
+      pane.getChildren().addAll(background, slider, label);
+   }
+
+   /**
+    * Shows where the replay is
+    *
+    * @param tick The tick the replay is at
+    * @param roundID The round the replay is in
+    * @param held Whether the replay is held still
+    */
+   public void update(long tick, int roundID, boolean held)
+   {
+      updating = true;
+      slider.setValue(tick);
+      updating = false;
+
+      label.setText((held ? "Paused" : "Playing") + " - round " + roundID +
+                    ", " + formatTime(tick) + " / " + formatTime(lastTick));
+   }
+
+   /**
+    * Brings the strip back in front of panes added since it was set up
+    */
+   public void toFront()
+   {
+      background.toFront();
+      slider.toFront();
+      label.toFront();
+   }
+
+   /**
+    * Formats the game time at a tick as minutes and seconds
+    *
+    * @param tick The tick
+    * @return The time, such as "2:05"
+    */
+   private static String formatTime(long tick)
+   {
+      long seconds = tick / TICKS_PER_SEC;
+      return String.format("%d:%02d", seconds / 60, seconds % 60);
+   }
+}
@@ -0,0 +1,118 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+/**
+ * Plays a replay without a window, one tick at a time, pressing its keys
+ * on the ticks they were pressed on. It can seek to any tick: it puts the
+ * game back from the last snapshot at or before the tick and plays on
+ * from there, so a seek never plays more than ReplayRecorder's
+ * SNAPSHOT_TICKS ticks. Seeking forward from where the player already is
+ * only plays on from there if no snapshot is closer.
+ *
+ * @author Devon Lee
+ */
+public class ReplayPlayer
+{
+   private final Replay replay;
+
+   private HeadlessGame game;
+   private int next;
+
+   /**
+    * Creates a player at the start of the replay
+    *
+    * @param replay The replay to play
+    */
+   public ReplayPlayer(Replay replay)
+   {
+      this.replay = replay;
+      restart();
+   }
+
+   /**
+    * Presses the keys of the current tick, then plays the tick if the
+    * round is running
+    *
+    * @return True if a tick was played, false once the replay is over
+    */
+   public boolean step()
+   {
+      if(game.isOver())
+         return false;
+
+      while(next < replay.size() &&
+            replay.getTick(next) == game.getGameTicks())
+         game.pressKey(replay.getKeyCode(next++));
+
+      if(game.isRunning() && (next < replay.size() ||
+                              game.getGameTicks() < replay.getFinalTick()))
+      {
+         game.tick();
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Moves the game to a tick, before any of the keys pressed on it
+    *
+    * @param tick The tick to seek to; ticks past the end of the replay
+    *             seek to the end
+    * @throws IOException If a snapshot of the replay cannot be read
+    */
+   public void seek(long tick) throws IOException
+   {
+      tick = Math.max(0, Math.min(tick, replay.getFinalTick()));
+
+      // Going back, or past keys already pressed, needs a fresh start
+      boolean behind = tick < game.getGameTicks() ||
+                       tick == game.getGameTicks() &&
+                       next > replay.firstKeyAt(tick);
+      int snapshot = replay.lastSnapshotAt(tick);
+      long snapshotTick = snapshot < 0 ? 0
+                                       : replay.getSnapshotTick(snapshot);
+      if(behind || snapshotTick > game.getGameTicks())
+      {
+         if(snapshot < 0)
+            restart();
+         else
+         {
+            game.restore(replay.getSnapshot(snapshot));
+            next = replay.firstKeyAt(snapshotTick);
+         }
+      }
+
+      while(game.getGameTicks() < tick && step());
+   }
+
+   /**
+    * Starts the game over from its first tick
+    */
+   private void restart()
+   {
+      game = new HeadlessGame(null, replay.getSeed());
+      game.startRound();
+      next = 0;
+   }
+
+   /**
+    * Gets the game being replayed
+    *
+    * @return The game as it stands
+    */
+   public HeadlessGame getGame()
+   {
+      return game;
+   }
+
+   /**
+    * Gets the next key of the replay to be pressed
+    *
+    * @return The index of the key, or the number of keys if none are left
+    */
+   public int getNextKey()
+   {
+      return next;
+   }
+}
@@ -0,0 +1,245 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records the keys pressed during a game so that the game can be played
+ * again exactly as it went, by Replay. Every round of a game is made from
+ * the seed of its session and its clock counts ticks, so the seed and
+ * each key with the tick it was pressed on are all a replay needs. A
+ * snapshot of the game every SNAPSHOT_TICKS ticks is kept alongside the
+ * keys, so that a replay can jump to any tick without playing every tick
+ * before it.
+ *
+ * Keys are written as they are pressed into a buffer in memory, which
+ * grows by doubling, so recording a key costs a few array stores; the
+ * file is only written once the game is over, by one background thread
+ * that every recorder shares. Only the newest MAX_REPLAYS replays are
+ * kept in the replay folder.
+ *
+ * Replay format, the header big-endian:
+ *    int magic, byte version, long seed,
+ *    then keys of: varint ticks since the previous key, varint key code,
+ *    then the end: varint ticks since the last key, varint 0,
+ *    zigzag varint final score, varint round reached,
+ *    then varint number of snapshots, each of: varint tick, varint length,
+ *    the GameSnapshot
+ * Replays before version 3 were recorded when every round started its zones
+ * on the same axis, so they no longer play back the same and are refused.
+ *
+ * @author Devon Lee
+ */
+public class ReplayRecorder
+{
+   static final int MAGIC = 0x54485250; // "THRP"
+   static final byte VERSION = 3;
+
+   // Five seconds of play between snapshots; playing that many ticks takes
+   // well under a millisecond
+   public static final int SNAPSHOT_TICKS = 250;
+
+   private static final String REPLAY_FOLDER = "Replays";
+   private static final String REPLAY_EXTENSION = ".replay";
+   private static final int MAX_REPLAYS = 20;
+
+   // Writes the replays one after another, off the game thread
+   private static final ExecutorService writer =
+                        Executors.newSingleThreadExecutor(
+                        ReplayRecorder::newWriterThread);
+
+   private final CompactBuffer keys = new CompactBuffer();
+   private final CompactBuffer snapshots = new CompactBuffer();
+   private int numSnapshots = 0;
+   private long lastTick = 0;
+   private boolean finished = false;
+
+   /**
+    * Creates a recorder for a game that has not started yet
+    *
+    * @param seed The seed of the game
+    */
+   public ReplayRecorder(long seed)
+   {
+      keys.writeInt(MAGIC);
+      keys.writeByte(VERSION);
+      keys.writeLong(seed);
+   }
+
+   /**
+    * Records a key pressed during the game
+    *
+    * @param tick The number of ticks played in the game when it was
+    *             pressed
+    * @param keyCode The code of the key; 0, an unknown key, is left out
+    */
+   public void record(long tick, int keyCode)
+   {
+      if(keyCode > 0 && !finished)
+      {
+         keys.writeVarint(tick - lastTick);
+         keys.writeVarint(keyCode);
+         lastTick = tick;
+      }
+   }
+
+   /**
+    * Records a snapshot of the game, taken before any key pressed on the
+    * same tick
+    *
+    * @param tick The number of ticks played in the game
+    * @param snapshot The bytes of the snapshot, from GameSnapshot
+    */
+   public void snapshot(long tick, byte[] snapshot)
+   {
+      if(!finished)
+      {
+         snapshots.writeVarint(tick);
+         snapshots.writeBytes(snapshot);
+         numSnapshots++;
+      }
+   }
+
+   /**
+    * Records the end of the game, after which nothing more is recorded
+    *
+    * @param tick The number of ticks played in the game
+    * @param totalScore The final score of the game
+    * @param roundID The last round reached
+    */
+   public void finish(long tick, int totalScore, int roundID)
+   {
+      if(!finished)
+      {
+         keys.writeVarint(tick - lastTick);
+         keys.writeVarint(0);
+         keys.writeSigned(totalScore);
+         keys.writeVarint(roundID);
+         keys.writeVarint(numSnapshots);
+         finished = true;
+      }
+   }
+
+   /**
+    * Gets the replay recorded so far; the snapshots are only included
+    * once the game is finished
+    *
+    * @return The bytes of the replay
+    */
+   public byte[] toBytes()
+   {
+      byte[] replay = keys.toBytes();
+      if(!finished)
+         return replay;
+
+      byte[] saved = snapshots.toBytes();
+      replay = Arrays.copyOf(replay, replay.length + saved.length);
+      System.arraycopy(saved, 0, replay, replay.length - saved.length,
+                       saved.length);
+      return replay;
+   }
+
+   /**
+    * Writes the replay to a new file in the replay folder, without waiting
+    * for it to be written, and deletes the oldest replays past MAX_REPLAYS
+    *
+    * @param verbose True to print where the replay was saved
+    */
+   public void save(boolean verbose)
+   {
+      byte[] replay = toBytes();
+      Path file = Paths.get(REPLAY_FOLDER,
+                            System.currentTimeMillis() + REPLAY_EXTENSION);
+      writer.execute(() ->
+      {
+         try
+         {
+            Files.createDirectories(file.getParent());
+            Files.write(file, replay);
+            if(verbose)
+               System.out.println("Replay saved to " + file);
+            deleteOldReplays(file.getParent());
+         }
+         catch(IOException e)
+         {
+            System.out.println("Replay could not be saved: " + e);
+         }
+      });
+   }
+
+   /**
+    * Creates the thread that writes the replays, which does not keep the
+    * program running
+    *
+    * @param task What the thread runs
+    * @return The thread
+    */
+   private static Thread newWriterThread(Runnable task)
+   {
+      Thread thread = new Thread(task, "Replay writer");
+      thread.setDaemon(true);
+      return thread;
+   }
+
+   /**
+    * Waits until every replay saved so far has been written
+    */
+   public static void flush()
+   {
+      try
+      {
+         writer.submit(() -> { }).get();
+      }
+      catch(InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+      catch(ExecutionException e)
+      {
+         // The empty task cannot fail
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * Deletes all but the newest MAX_REPLAYS replays in a folder; replays
+    * are named by the time they were saved, so the oldest sort first
+    *
+    * @param folder The replay folder
+    * @throws IOException If the folder cannot be listed or a replay
+    *                     cannot be deleted
+    */
+   private static void deleteOldReplays(Path folder) throws IOException
+   {
+      ArrayList<Path> replays = new ArrayList<>();
+      try(DirectoryStream<Path> files =
+          Files.newDirectoryStream(folder, "*" + REPLAY_EXTENSION))
+      {
+         for(Path replay : files)
+            replays.add(replay);
+      }
+      if(replays.size() <= MAX_REPLAYS)
+         return;
+
+      // Sorted by length first, so the names sort as the numbers they are
+      Collections.sort(replays, (a, b) ->
+      {
+         String first = a.getFileName().toString();
+         String second = b.getFileName().toString();
+         return first.length() != second.length()
+                ? first.length() - second.length()
+                : first.compareTo(second);
+      });
+      for(int i = 0; i < replays.size() - MAX_REPLAYS; i++)
+         Files.deleteIfExists(replays.get(i));
+   }
+}
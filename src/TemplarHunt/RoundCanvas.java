@@ -0,0 +1,301 @@
+package TemplarHunt;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Alternative to the figures of PFigureList that draws a whole round of
+ * the game (background, zones, enemies, scoreboard, and player) onto a
+ * single Canvas in one pass per frame. The scene graph then only holds
+ * this one node no matter how many enemies there are, so there is no
+ * layout, CSS, or picking to do per figure. It looks the same as the
+ * figures it replaces.
+ *
+ * @author Devon Lee
+ */
+public class RoundCanvas extends Canvas
+{
+   private static final double BACKGROUND_OPACITY = 0.7;
+   private static final double ZONE_OPACITY = 0.6;
+   private static final int TIMER_BOX_SIZE = 30;
+   private static final int TIMER_WARNING_TIME = 10;
+
+   private static final Font TITLE_FONT = Font.font("Times New Roman", 24);
+   private static final Font BODY_FONT = Font.font("Times New Roman", 18);
+
+   private final GameWorld world;
+
+   private final Image background;
+   private final Image hay;
+   private final Image cobble;
+   private final Image regularEnemy;
+   private final Image specialEnemy;
+
+   // The player drawn relative to its top left corner
+   private final double[][] playerArrowXs;
+   private final double[][] playerArrowYs;
+
+   // Text currently shown on the scoreboard, rebuilt only on a change
+   private final String roundText;
+   private int shownClock = Integer.MIN_VALUE;
+   private int shownRoundScore = Integer.MIN_VALUE;
+   private int shownTotalScore = Integer.MIN_VALUE;
+   // Starts out showing the placeholder for a high score not loaded yet
+   private int shownHighScore = HighScoresData.UNKNOWN_SCORE;
+   private String clockText;
+   private String roundScoreText;
+   private String totalScoreText;
+   private String highScoreText = "High Score: " +
+                  HighScoresData.toText(HighScoresData.UNKNOWN_SCORE);
+
+   /**
+    * Creates a canvas covering the stage that draws the given world
+    *
+    * Dirt file obtained from deviantart.com
+    * Hay file obtained from barlowflowerfarm.com
+    * Cobblestone file obtained from freestocktextures.com
+    * Regular enemy file obtained from PikPNG.com
+    * Special enemy file obtained from Teemato.com
+    *
+    * @param world The world of the round to draw
+    */
+   public RoundCanvas(GameWorld world)
+   {
+      super(STAGE_SIZE, STAGE_SIZE);
+
+      this.world = world;
+      roundText = "Round: " + world.getScoreboard().getRoundID();
+
+      background = ScaledAssets.get("Dirt.jpg", STAGE_SIZE, STAGE_SIZE,
+                                    BACKGROUND_OPACITY);
+      hay = ScaledAssets.get("Hay.png", ZONE_SIZE, ZONE_SIZE,
+                             ZONE_OPACITY);
+      cobble = ScaledAssets.get("Cobble.jpg", ZONE_SIZE, ZONE_SIZE,
+                                ZONE_OPACITY);
+      regularEnemy = ScaledAssets.get("Assassin.png", EnemyStore.SIZE,
+                                      EnemyStore.SIZE);
+      specialEnemy = ScaledAssets.get("SuperAssassin.jpg",
+                                      EnemyStore.SIZE, EnemyStore.SIZE);
+
+      double size = world.getPlayer().getWidth();
+      double mid = size / 2;
+      playerArrowXs = new double[][] {{10, 18, 10},
+                                      {size - 10, size - 18, size - 10},
+                                      {mid - 8, mid, mid + 8},
+                                      {mid - 8, mid, mid + 8}};
+      playerArrowYs = new double[][] {{mid - 8, mid, mid + 8},
+                                      {mid - 8, mid, mid + 8},
+                                      {10, 18, 10},
+                                      {size - 10, size - 18, size - 10}};
+   }
+
+
+   /**
+    * Draws the whole round in its current state
+    *
+    * @param alpha How far between their positions before and after the
+    *              last tick to draw the figures, from 0 to 1
+    * @param clock The time left in the round
+    * @param roundScore The score achieved in the current round
+    * @param totalScore The score achieved in the current game
+    * @param highScore The highest score achieved in all games
+    */
+   public void draw(double alpha, int clock, int roundScore,
+                    int totalScore, int highScore)
+   {
+      GraphicsContext gc = getGraphicsContext2D();
+
+      gc.setFill(Color.WHITE);
+      gc.fillRect(0, 0, STAGE_SIZE, STAGE_SIZE);
+      drawImage(gc, background, 0, 0);
+
+      drawZones(gc, alpha);
+      drawEnemies(gc, alpha);
+      drawScoreboard(gc, alpha, clock, roundScore, totalScore, highScore);
+      drawPlayer(gc);
+   }
+
+   /**
+    * Draws an image at its own size, if it was loaded; the images are
+    * already scaled and blended by ScaledAssets
+    *
+    * @param gc The graphics context of the canvas
+    * @param image The image to draw
+    * @param x The x-coordinate of the image
+    * @param y The y-coordinate of the image
+    */
+   private static void drawImage(GraphicsContext gc, Image image, double x,
+                                 double y)
+   {
+      if(image != null)
+         gc.drawImage(image, x, y);
+   }
+
+   /**
+    * Draws the zones with one of two different images depending on the
+    * type of each zone
+    *
+    * @param gc The graphics context of the canvas
+    * @param alpha How far between the last two positions to draw the zones
+    */
+   private void drawZones(GraphicsContext gc, double alpha)
+   {
+      ZoneModel[] zones = world.getZones();
+
+      for(int i = 0; i < zones.length; i++)
+      {
+         double x = zones[i].getRenderX(alpha);
+         double y = zones[i].getRenderY(alpha);
+
+         gc.setFill(Color.WHITE);
+         gc.fillRect(x, y, ZONE_SIZE, ZONE_SIZE);
+         drawImage(gc, zones[i].isHayZone() ? hay : cobble, x, y);
+      }
+   }
+
+   /**
+    * Draws every enemy that is not tagged
+    *
+    * @param gc The graphics context of the canvas
+    * @param alpha How far between the last two positions to draw enemies
+    */
+   private void drawEnemies(GraphicsContext gc, double alpha)
+   {
+      EnemyStore enemies = world.getEnemies();
+
+      for(int i = 0; i < enemies.size(); i++)
+         if(!enemies.isTagged(i))
+         {
+            Image icon = enemies.isSpecialEnemy(i) ? specialEnemy
+                                                   : regularEnemy;
+            drawImage(gc, icon, enemies.getRenderX(i, alpha),
+                      enemies.getRenderY(i, alpha));
+         }
+   }
+
+   /**
+    * Draws the scoreboard along with the statistics it displays
+    *
+    * @param gc The graphics context of the canvas
+    * @param alpha How far between the last two positions to draw it
+    * @param clock The time remaining in the round (rounded down)
+    * @param roundScore The score for the current round
+    * @param totalScore The total score of all rounds
+    * @param highScore The highest score achieved in the game
+    */
+   private void drawScoreboard(GraphicsContext gc, double alpha, int clock,
+                               int roundScore, int totalScore,
+                               int highScore)
+   {
+      updateScoreboardText(clock, roundScore, totalScore, highScore);
+
+      ScoreboardModel scoreboard = world.getScoreboard();
+      int width = scoreboard.getWidth();
+      int height = scoreboard.getHeight();
+
+      gc.save();
+      gc.translate(scoreboard.getRenderX(alpha),
+                   scoreboard.getRenderY(alpha));
+
+      gc.setStroke(Color.BLACK);
+      gc.setFill(Color.LIGHTSTEELBLUE);
+      gc.fillRect(0, 0, width, height);
+      gc.strokeRect(0, 0, width, height);
+      gc.setFill(Color.SLATEGRAY);
+      gc.fillRect(width - TIMER_BOX_SIZE, 0, TIMER_BOX_SIZE,
+                  TIMER_BOX_SIZE);
+      gc.strokeRect(width - TIMER_BOX_SIZE, 0, TIMER_BOX_SIZE,
+                    TIMER_BOX_SIZE);
+
+      gc.setTextBaseline(VPos.TOP);
+      gc.setFont(TITLE_FONT);
+      gc.setFill(Color.BLACK);
+      gc.fillText(roundText, 4, 1);
+      if(clock <= TIMER_WARNING_TIME)
+         gc.setFill(Color.CRIMSON);
+      else
+         gc.setFill(Color.WHITE);
+      gc.fillText(clockText, 113, 0);
+
+      gc.setFont(BODY_FONT);
+      gc.setFill(Color.BLACK);
+      gc.fillText(roundScoreText, 5, 31);
+      gc.fillText(totalScoreText, 4, 51);
+      gc.fillText(highScoreText, 4, 71);
+
+      gc.restore();
+   }
+
+   /**
+    * Rebuilds the text of whichever statistics on the scoreboard changed
+    *
+    * @param clock The time remaining in the round (rounded down)
+    * @param roundScore The score for the current round
+    * @param totalScore The total score of all rounds
+    * @param highScore The highest score achieved in the game
+    */
+   private void updateScoreboardText(int clock, int roundScore,
+                                     int totalScore, int highScore)
+   {
+      if(clock != shownClock)
+      {
+         shownClock = clock;
+         if(clock < 0)
+            clockText = "00";
+         else if(clock < 10)
+            clockText = "0" + clock; // Clock reads ## or 0#
+         else
+            clockText = Integer.toString(clock);
+      }
+      if(roundScore != shownRoundScore)
+      {
+         shownRoundScore = roundScore;
+         roundScoreText = "Round Score: " + roundScore;
+      }
+      if(totalScore != shownTotalScore)
+      {
+         shownTotalScore = totalScore;
+         totalScoreText = "Total Score: " + totalScore;
+      }
+      if(highScore != shownHighScore)
+      {
+         shownHighScore = highScore;
+         highScoreText = "High Score: " + HighScoresData.toText(highScore);
+      }
+   }
+
+   /**
+    * Draws the player character
+    *
+    * @param gc The graphics context of the canvas
+    */
+   private void drawPlayer(GraphicsContext gc)
+   {
+      PlayerModel player = world.getPlayer();
+      double width = player.getWidth();
+      double height = player.getHeight();
+
+      gc.save();
+      gc.translate(player.getX(), player.getY());
+
+      gc.setFill(Color.WHITE);
+      gc.fillOval(0, 0, width, height);
+      gc.setStroke(Color.BLACK);
+      gc.strokeOval(0, 0, width, height);
+
+      gc.setFill(Color.RED);
+      gc.fillRect(10, height / 2 - 4, width - 20, 8);
+      gc.fillRect(width / 2 - 4, 10, 8, height - 20);
+      for(int i = 0; i < playerArrowXs.length; i++)
+         gc.fillPolygon(playerArrowXs[i], playerArrowYs[i], 3);
+
+      gc.restore();
+   }
+}
@@ -0,0 +1,374 @@
+package TemplarHunt;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
+
+/**
+ * Asset pipeline that turns the large source images of the game into
+ * variants at the exact size they are drawn on screen, with the opacity
+ * they are drawn at already blended in. Every variant the game draws is
+ * made when the bundle is built and packed into it as a small PNG, so at
+ * run time a variant is decoded straight out of the mapped bundle and the
+ * source image is never read. JavaFX then samples a small texture each
+ * frame instead of resampling, say, the 1000x1000 hay image down to a
+ * zone.
+ *
+ * A variant that is not in the bundle, as while developing without one,
+ * is made from its source image the first time it is asked for and saved
+ * as a PNG in a cache directory, under a name that starts with the hash
+ * of its source file, to be read straight back on later runs; editing a
+ * source image changes its hash, so stale variants are never used. Only
+ * this fallback reads and hashes the sources.
+ *
+ * The variants are kept in the ImageCache, under their names in the
+ * bundle.
+ *
+ * @author Devon Lee
+ */
+public class ScaledAssets
+{
+   // Every variant the game draws, packed into the bundle by AssetBundle;
+   // all of them are square
+   public static final String[] VARIANT_SOURCES = new String[]
+                                {"Dirt.jpg", "Hay.png", "Cobble.jpg",
+                                 "Assassin.png", "SuperAssassin.jpg"};
+   public static final int[] VARIANT_SIZES = new int[]
+                             {STAGE_SIZE, ZONE_SIZE, ZONE_SIZE,
+                              EnemyStore.SIZE, EnemyStore.SIZE};
+   public static final double[] VARIANT_OPACITIES = new double[]
+                                {0.7, 0.6, 0.6, 1.0, 1.0};
+
+   public static final String CACHE_DIRECTORY = "Asset Cache";
+
+   // Bumped whenever the way variants are made changes, so variants in a
+   // bundle or cache made by an older pipeline are no longer found
+   private static final int PIPELINE_VERSION = 1;
+   private static final int HASH_BYTES = 16;
+   private static final int OPAQUE = 0xff000000;
+   private static final int WHITE = 0xff;
+
+   /**
+    * Gets the image in the given file scaled to the given size
+    *
+    * @param fileName The source image, such as "Assassin.png"
+    * @param width The width the image is drawn at
+    * @param height The height the image is drawn at
+    * @return The scaled image, or null if it could not be loaded
+    */
+   public static Image get(String fileName, int width, int height)
+   {
+      return get(fileName, width, height, 1.0);
+   }
+
+   /**
+    * Gets the image in the given file scaled to the given size and drawn
+    * at the given opacity over a white background, which is what every
+    * see-through image of the game is drawn over. The result is opaque.
+    *
+    * @param fileName The source image, such as "Hay.png"
+    * @param width The width the image is drawn at
+    * @param height The height the image is drawn at
+    * @param opacity The opacity the image is drawn at, from 0 to 1
+    * @return The blended image, or null if it could not be loaded
+    */
+   public static Image get(String fileName, int width, int height,
+                           double opacity)
+   {
+      String name = variantName(fileName, width, height, opacity);
+      return ImageCache.get(name, () ->
+      {
+         Image image = AssetBundle.contains(name) ? decode(name) : null;
+         if(image != null)
+            return image;
+         try
+         {
+            return makeVariant(fileName, width, height, opacity);
+         }
+         catch(IOException e)
+         {
+            // Left to JavaFX to scale as it loads, without the blending
+            System.out.println("Could not scale image " + fileName + ": " +
+                               e);
+            return load(fileName, width, height);
+         }
+      });
+   }
+
+   /**
+    * Gets the name a variant is packed into the bundle under
+    *
+    * @param fileName The source image
+    * @param width The width of the variant
+    * @param height The height of the variant
+    * @param opacity The opacity the variant is blended at
+    * @return The name of the variant, such as "Hay.png@272x272-60.v1.png"
+    */
+   public static String variantName(String fileName, int width, int height,
+                                    double opacity)
+   {
+      return fileName + "@" + width + "x" + height + "-" +
+             Math.round(opacity * 100) + ".v" + PIPELINE_VERSION + ".png";
+   }
+
+   /**
+    * Makes a variant from the contents of its source image, for packing
+    * into the bundle
+    *
+    * @param source The contents of the source image
+    * @param width The width of the variant
+    * @param height The height of the variant
+    * @param opacity The opacity to blend the variant at
+    * @return The variant as a PNG file
+    * @throws IOException If the source is not an image
+    */
+   public static byte[] encodeVariant(byte[] source, int width, int height,
+                                      double opacity) throws IOException
+   {
+      BufferedImage variant = render(ImageIO.read(
+                              new ByteArrayInputStream(source)),
+                              width, height, opacity);
+      ByteArrayOutputStream png = new ByteArrayOutputStream();
+      ImageIO.write(variant, "png", png);
+      return png.toByteArray();
+   }
+
+   /**
+    * Decodes a variant packed into the bundle
+    *
+    * @param name The name of the variant
+    * @return The variant, or null if it could not be decoded
+    */
+   private static Image decode(String name)
+   {
+      try(InputStream packed = AssetBundle.open(name))
+      {
+         Image image = new Image(packed);
+         return image.isError() ? null : image;
+      }
+      catch(IOException e)
+      {
+         System.out.println("Could not load image " + name + ": " + e);
+         return null;
+      }
+   }
+
+   /**
+    * Loads a source image scaled by JavaFX as it is decoded
+    *
+    * @param fileName The source image
+    * @param width The width to scale it to
+    * @param height The height to scale it to
+    * @return The scaled image, or null if it could not be read
+    */
+   private static Image load(String fileName, int width, int height)
+   {
+      try(InputStream source = AssetBundle.open(fileName))
+      {
+         return new Image(source, width, height, false, true);
+      }
+      catch(IOException e)
+      {
+         System.out.println("Could not load image " + fileName + ": " +
+                            e);
+         return null;
+      }
+   }
+
+   /**
+    * Makes a variant that is not in the bundle: finds it in the cache
+    * directory under the hash of its source, or makes it from the source
+    * and saves it there for the next run
+    *
+    * @param fileName The source image
+    * @param width The width of the variant
+    * @param height The height of the variant
+    * @param opacity The opacity to blend the variant at
+    * @return The variant
+    * @throws IOException If the source image cannot be read
+    */
+   private static Image makeVariant(String fileName, int width, int height,
+                                    double opacity) throws IOException
+   {
+      byte[] source;
+      try(InputStream in = AssetBundle.open(fileName))
+      {
+         source = in.readAllBytes();
+      }
+      Path file = Paths.get(CACHE_DIRECTORY, hash(source) + "-" +
+                            variantName(fileName, width, height, opacity));
+      if(Files.isRegularFile(file))
+      {
+         try(InputStream cached = Files.newInputStream(file))
+         {
+            Image image = new Image(cached);
+            if(!image.isError())
+               return image;
+         }
+      }
+
+      BufferedImage variant = render(ImageIO.read(
+                              new ByteArrayInputStream(source)),
+                              width, height, opacity);
+
+      // Written beside the final file and moved into place so a variant
+      // is never seen half written
+      try
+      {
+         Files.createDirectories(file.getParent());
+         Path temp = Files.createTempFile(file.getParent(), "variant",
+                                          ".tmp");
+         ImageIO.write(variant, "png", temp.toFile());
+         Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch(IOException e)
+      {
+         System.out.println("Could not save scaled image " + file + ": " +
+                            e);
+      }
+      return toImage(variant);
+   }
+
+   /**
+    * Scales a source image and blends it over white
+    *
+    * @param original The decoded source image
+    * @param width The width of the variant
+    * @param height The height of the variant
+    * @param opacity The opacity to blend the variant at
+    * @return The variant
+    * @throws IOException If the source could not be decoded
+    */
+   private static BufferedImage render(BufferedImage original, int width,
+                                       int height, double opacity)
+         throws IOException
+   {
+      if(original == null)
+         throw new IOException("unsupported image format");
+      BufferedImage variant = scale(original, width, height);
+      if(opacity < 1.0)
+         blendOverWhite(variant, opacity);
+      return variant;
+   }
+
+   /**
+    * Scales an image to the given size, averaging every source pixel that
+    * lands on a target pixel
+    *
+    * @param original The image to scale
+    * @param width The width of the result
+    * @param height The height of the result
+    * @return The scaled image with an alpha channel
+    */
+   private static BufferedImage scale(BufferedImage original, int width,
+                                      int height)
+   {
+      BufferedImage scaled = new BufferedImage(width, height,
+                                               BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = scaled.createGraphics();
+      g.drawImage(original.getScaledInstance(width, height,
+                  java.awt.Image.SCALE_AREA_AVERAGING), 0, 0, null);
+      g.dispose();
+      return scaled;
+   }
+
+   /**
+    * Replaces every pixel of an image with what it looks like drawn at the
+    * given opacity over white
+    *
+    * @param image The image to blend, changed in place
+    * @param opacity The opacity to draw the image at, from 0 to 1
+    */
+   private static void blendOverWhite(BufferedImage image, double opacity)
+   {
+      int width = image.getWidth();
+      int[] row = new int[width];
+
+      for(int y = 0; y < image.getHeight(); y++)
+      {
+         image.getRGB(0, y, width, 1, row, 0, width);
+         for(int x = 0; x < width; x++)
+         {
+            int pixel = row[x];
+            double a = (pixel >>> 24) / 255.0 * opacity;
+            int r = blend((pixel >> 16) & 0xff, a);
+            int g = blend((pixel >> 8) & 0xff, a);
+            int b = blend(pixel & 0xff, a);
+            row[x] = OPAQUE | (r << 16) | (g << 8) | b;
+         }
+         image.setRGB(0, y, width, 1, row, 0, width);
+      }
+   }
+
+   /**
+    * Blends one color channel over white
+    *
+    * @param channel The value of the channel, from 0 to 255
+    * @param alpha The opacity of the channel, from 0 to 1
+    * @return The blended value, from 0 to 255
+    */
+   private static int blend(int channel, double alpha)
+   {
+      return (int) Math.round(channel * alpha + WHITE * (1 - alpha));
+   }
+
+   /**
+    * Copies the pixels of an AWT image into a JavaFX image
+    *
+    * @param image The image to copy
+    * @return A JavaFX image with the same pixels
+    */
+   private static Image toImage(BufferedImage image)
+   {
+      int width = image.getWidth();
+      int height = image.getHeight();
+      int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+      WritableImage copy = new WritableImage(width, height);
+      copy.getPixelWriter().setPixels(0, 0, width, height,
+                                      PixelFormat.getIntArgbInstance(),
+                                      pixels, 0, width);
+      return copy;
+   }
+
+   /**
+    * Hashes the contents of a source image
+    *
+    * @param bytes The contents of the file
+    * @return The start of the SHA-256 hash of the contents, in hex
+    */
+   private static String hash(byte[] bytes)
+   {
+      try
+      {
+         byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+         StringBuilder hex = new StringBuilder();
+         for(int i = 0; i < HASH_BYTES; i++)
+            hex.append(String.format("%02x", digest[i]));
+         return hex.toString();
+      }
+      catch(NoSuchAlgorithmException e)
+      {
+         // Every Java platform is required to support SHA-256
+         throw new IllegalStateException(e);
+      }
+   }
+}
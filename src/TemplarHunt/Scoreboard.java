@@ -7,65 +7,104 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
-import static TemplarHunt.GUI.STAGE_SIZE;
-
 /**
- * This class controls a game object that also displays statistics about
- * the game including scores and time remaining, and it also serves as a
- * way for the player to score points
+ * This class draws a ScoreboardModel, a game object that also displays
+ * statistics about the game including scores and time remaining, and it
+ * also serves as a way for the player to score points
  *
  * @author Devon Lee
  */
 public class Scoreboard extends PFigure
 {
-   private static final int WIDTH = 140;
-   private static final int HEIGHT = 96;
    private static final int TIMER_BOX_SIZE = 30;
+   private static final int TIMER_WARNING_TIME = 10;
 
    private static final Font TITLE_FONT = Font.font("Times New Roman", 24);
    private static final Font BODY_FONT = Font.font("Times New Roman", 18);
 
-   private final int roundID;
-   private int xVel = 1;
-   private int yVel = 1;
+   private final ScoreboardModel state;
+
+   private final Label timer;
+   private final Label roundScoreLabel;
+   private final Label totalScoreLabel;
+   private final Label highScoreLabel;
+
+   // Values currently shown, so that labels are only updated on a change
+   private int shownClock = Integer.MIN_VALUE;
+   private int shownRoundScore = Integer.MIN_VALUE;
+   private int shownTotalScore = Integer.MIN_VALUE;
+   // Starts out showing the placeholder for a high score not loaded yet
+   private int shownHighScore = HighScoresData.UNKNOWN_SCORE;
 
    /**
-    * Constructor for the scoreboard figure
+    * Constructor for the scoreboard figure; creates all of its shapes and
+    * labels, which are then moved and updated as the game goes on
     *
-    * @param roundID The current round of the game; used to display the
-    *                round when rendered
+    * @param state The simulation state of the scoreboard; its round is
+    *              displayed when rendered
     * @param p The pane on which this figure is instantiated
     */
-   public Scoreboard(int roundID, Pane p)
+   public Scoreboard(ScoreboardModel state, Pane p)
    {
-      super((int) (STAGE_SIZE * Math.random()),
-            (int) (STAGE_SIZE * Math.random()),  WIDTH,  HEIGHT,  p);
+      super(state, p);
+
+      this.state = state;
+      int width = state.getWidth();
+      int height = state.getHeight();
+
+      Rectangle rect = new Rectangle(0, 0, width, height);
+      rect.setStroke(Color.BLACK);
+      rect.setFill(Color.LIGHTSTEELBLUE);
+      Rectangle timerRect = new Rectangle(width - TIMER_BOX_SIZE, 0,
+                                          TIMER_BOX_SIZE, TIMER_BOX_SIZE);
+      timerRect.setStroke(Color.BLACK);
+      timerRect.setFill(Color.SLATEGRAY);
+
+      Label roundNumber = makeLabel(TITLE_FONT, 4, 1);
+      roundNumber.setText("Round: " + state.getRoundID());
+      timer = makeLabel(TITLE_FONT, 113, 0);
+      roundScoreLabel = makeLabel(BODY_FONT, 5, 31);
+      totalScoreLabel = makeLabel(BODY_FONT, 4, 51);
+      highScoreLabel = makeLabel(BODY_FONT, 4, 71);
+      highScoreLabel.setText("High Score: " +
+                    HighScoresData.toText(HighScoresData.UNKNOWN_SCORE));
 
-      this.roundID = roundID;
+      getChildren().addAll(rect, timerRect, roundNumber, timer,
+                           roundScoreLabel, totalScoreLabel,
+                           highScoreLabel);
       draw();
    }
 
    /**
-    * Bounces the figure around the screen
+    * Creates one of the labels of the scoreboard
+    *
+    * @param font The font of the label
+    * @param x The x-coordinate of the label on the scoreboard
+    * @param y The y-coordinate of the label on the scoreboard
+    * @return The new label
     */
-   public void move()
+   private static Label makeLabel(Font font, int x, int y)
    {
-      super.move(xVel, yVel);
-
-      if(xVel < 0 && x <= 0 || xVel > 0 && x + width >= STAGE_SIZE)
-         xVel = - xVel;
-      if(yVel < 0 && y <= 0 || yVel > 0 && y + height >= STAGE_SIZE)
-         yVel = - yVel;
+      Label label = new Label();
+      label.setTextAlignment(TextAlignment.CENTER);
+      label.setFont(font);
+      label.setLayoutX(x);
+      label.setLayoutY(y);
+      return label;
    }
 
    /**
-    * Unused method; needed to be implemented from the abstract method in
-    * abstract PFigure
+    * Moves the scoreboard to the current position of its model
     */
-   public void draw(){}
+   public void draw()
+   {
+      setTranslateX(renderX());
+      setTranslateY(renderY());
+   }
 
    /**
-    * Draw method specific for the scoreboard
+    * Draw method specific for the scoreboard; moves the scoreboard and
+    * updates whichever of the statistics have changed
     *
     * @param clock The time remaining in the round (rounded down)
     * @param roundScore The score for the current round
@@ -75,66 +114,40 @@ public class Scoreboard extends PFigure
    public void drawScoreboard(int clock, int roundScore, int totalScore,
                               int highScore)
    {
-      Rectangle rect = new Rectangle(x, y, width, height);
-      rect.setStroke(Color.BLACK);
-      rect.setFill(Color.LIGHTSTEELBLUE);
-      Rectangle timerRect = new Rectangle(x + width - TIMER_BOX_SIZE, y,
-                                          TIMER_BOX_SIZE, TIMER_BOX_SIZE);
-      timerRect.setStroke(Color.BLACK);
-      timerRect.setFill(Color.SLATEGRAY);
+      draw();
 
-      StringBuilder clockValue = new StringBuilder();
-      if(clock >= 0)
+      if(clock != shownClock)
       {
-         clockValue.append(clock);
-         if(clock < 10)
-            clockValue.insert(0, "0"); // Clock reads ## or 0#
+         shownClock = clock;
+         if(clock < 0)
+            timer.setText("00");
+         else if(clock < 10)
+            timer.setText("0" + clock); // Clock reads ## or 0#
+         else
+            timer.setText(Integer.toString(clock));
+
+         if(clock <= TIMER_WARNING_TIME)
+            timer.setTextFill(Color.CRIMSON);
+         else
+            timer.setTextFill(Color.WHITE);
       }
-      else
-         clockValue.append("00");
-
-      Label roundNumber = new Label("Round: " + roundID);
-      Label timer = new Label(clockValue.toString());
-      Label roundScoreLabel = new Label("Round Score: " + roundScore);
-      Label totalScoreLabel = new Label("Total Score: " + totalScore);
-      Label highScoreLabel = new Label("High Score: " + highScore);
-
-      timer.setTextAlignment(TextAlignment.CENTER);
-      roundNumber.setTextAlignment(TextAlignment.CENTER);
-      roundScoreLabel.setTextAlignment(TextAlignment.CENTER);
-      totalScoreLabel.setTextAlignment(TextAlignment.CENTER);
-      highScoreLabel.setTextAlignment(TextAlignment.CENTER);
-
-      timer.setFont(TITLE_FONT);
-      roundNumber.setFont(TITLE_FONT);
-      roundScoreLabel.setFont(BODY_FONT);
-      totalScoreLabel.setFont(BODY_FONT);
-      highScoreLabel.setFont(BODY_FONT);
-
-      if(clock <= 10)
-         timer.setTextFill(Color.CRIMSON);
-      else
-         timer.setTextFill(Color.WHITE);
-
-      roundNumber.setLayoutX(x + 4);
-      roundNumber.setLayoutY(y + 1);
-
-      timer.setLayoutX(x + 113);
-      timer.setLayoutY(y);
-
-      roundScoreLabel.setLayoutX(x + 5);
-      roundScoreLabel.setLayoutY(y + 31);
-
-      totalScoreLabel.setLayoutX(x + 4);
-      totalScoreLabel.setLayoutY(y + 51);
 
-      highScoreLabel.setLayoutX(x + 4);
-      highScoreLabel.setLayoutY(y + 71);
-
-      getChildren().clear();
-      getChildren().addAll(rect, timerRect, roundNumber, timer,
-                           roundScoreLabel, totalScoreLabel,
-                           highScoreLabel);
+      if(roundScore != shownRoundScore)
+      {
+         shownRoundScore = roundScore;
+         roundScoreLabel.setText("Round Score: " + roundScore);
+      }
+      if(totalScore != shownTotalScore)
+      {
+         shownTotalScore = totalScore;
+         totalScoreLabel.setText("Total Score: " + totalScore);
+      }
+      if(highScore != shownHighScore)
+      {
+         shownHighScore = highScore;
+         highScoreLabel.setText("High Score: " +
+                                HighScoresData.toText(highScore));
+      }
 
       pane.setVisible(true);
    }
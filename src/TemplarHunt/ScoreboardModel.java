@@ -0,0 +1,117 @@
+package TemplarHunt;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+
+/**
+ * Simulation state of the scoreboard, which bounces around the playfield
+ * and awards the player a point whenever they touch it
+ *
+ * @author Devon Lee
+ */
+public class ScoreboardModel extends FigureModel
+{
+   public static final int WIDTH = 140;
+   public static final int HEIGHT = 96;
+
+   private final int roundID;
+   private int xVel = 1;
+   private int yVel = 1;
+
+   /**
+    * Constructor for the scoreboard; assigns a random starting position on
+    * the playfield
+    *
+    * @param roundID The current round of the game
+    */
+   public ScoreboardModel(int roundID)
+   {
+      this(roundID, new Random());
+   }
+
+   /**
+    * Constructor for the scoreboard; picks its starting position with the
+    * random number generator of the round
+    *
+    * @param roundID The current round of the game
+    * @param random The random number generator of the round
+    */
+   public ScoreboardModel(int roundID, Random random)
+   {
+      super((int) (STAGE_SIZE * random.nextDouble()),
+            (int) (STAGE_SIZE * random.nextDouble()), WIDTH, HEIGHT);
+
+      this.roundID = roundID;
+   }
+
+   /**
+    * Gets the round the scoreboard was created for
+    *
+    * @return The round the scoreboard belongs to
+    */
+   public int getRoundID()
+   {
+      return roundID;
+   }
+
+   /**
+    * Writes the position and heading of the scoreboard to a snapshot
+    *
+    * @param out The snapshot being written
+    */
+   @Override
+   public void save(CompactBuffer out)
+   {
+      super.save(out);
+      out.writeSigned(xVel);
+      out.writeSigned(yVel);
+   }
+
+   /**
+    * Puts the scoreboard back as it was in a snapshot
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   @Override
+   public void restore(CompactBuffer in) throws IOException
+   {
+      super.restore(in);
+      xVel = (int) in.readSigned();
+      yVel = (int) in.readSigned();
+   }
+
+   /**
+    * Bounces the figure around the screen
+    */
+   public void move()
+   {
+      super.move(xVel, yVel);
+
+      if(xVel < 0 && x <= 0 || xVel > 0 && x + width >= STAGE_SIZE)
+         xVel = - xVel;
+      if(yVel < 0 && y <= 0 || yVel > 0 && y + height >= STAGE_SIZE)
+         yVel = - yVel;
+   }
+
+   /**
+    * Jumps the figure to where the given number of calls to move would
+    * leave it, in constant time
+    *
+    * @param steps The number of moves to skip ahead
+    */
+   public void advance(long steps)
+   {
+      int limit = STAGE_SIZE - width;
+      int newX = BounceSolver.positionAfter(x, xVel, limit, steps);
+      xVel = BounceSolver.velocityAfter(x, xVel, limit, steps);
+      x = newX;
+
+      limit = STAGE_SIZE - height;
+      int newY = BounceSolver.positionAfter(y, yVel, limit, steps);
+      yVel = BounceSolver.velocityAfter(y, yVel, limit, steps);
+      y = newY;
+   }
+}
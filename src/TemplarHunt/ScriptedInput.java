@@ -0,0 +1,55 @@
+package TemplarHunt;
+
+/**
+ * Player input that repeats a fixed script of moves, one letter per move:
+ * U, D, L, and R for the four directions and '.' to stay put. The script
+ * starts over at the beginning of every round and loops until the round
+ * ends, so "RRRRRRRRRRRRRRRRD" sweeps the playfield row by row.
+ *
+ * @author Devon Lee
+ */
+public class ScriptedInput implements PlayerInput
+{
+   private final String script;
+   private int position = 0;
+   private int roundID = 0;
+
+   /**
+    * Creates an input that plays the given script
+    *
+    * @param script The moves to repeat; must not be empty
+    * @throws IllegalArgumentException If the script is empty or holds a
+    *                                  letter that is not a move
+    */
+   public ScriptedInput(String script)
+   {
+      if(script.isEmpty())
+         throw new IllegalArgumentException("empty script");
+      for(int i = 0; i < script.length(); i++)
+         if("UDLR.".indexOf(script.charAt(i)) < 0)
+            throw new IllegalArgumentException("not a move: " +
+                                               script.charAt(i));
+      this.script = script;
+   }
+
+   /**
+    * Plays the next move of the script
+    *
+    * @param world The round being played
+    * @param engine The engine of the round
+    * @return The next move of the script
+    */
+   @Override
+   public char nextMove(GameWorld world, GameEngine engine)
+   {
+      if(engine.getRoundID() != roundID)
+      {
+         roundID = engine.getRoundID();
+         position = 0;
+      }
+
+      char move = script.charAt(position);
+      position = (position + 1) % script.length();
+      return move;
+   }
+}
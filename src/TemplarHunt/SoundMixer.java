@@ -0,0 +1,317 @@
+package TemplarHunt;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The sound effects of the game, mixed on a thread of their own into a
+ * single line to the speakers. The effects are decoded into memory once
+ * when the mixer is created; after that, playing an effect only posts a
+ * command to a lock-free queue, so the game never waits on the audio
+ * system. The mixer thread takes the commands at the start of every
+ * period, adds up the samples of each effect playing, and writes the
+ * period to the line, which blocks it until the speakers need more.
+ *
+ * Copies of an effect asked for in the same period, such as several hits
+ * in one tick, are merged into one. At most MAX_VOICES effects play at
+ * once; past that, a new effect replaces the one that has played the
+ * longest. The mixer measures the time from an effect being asked for to
+ * its first samples being written.
+ *
+ * All sounds obtained from the free game sound library of mixkit.com
+ *
+ * @author Devon Lee
+ */
+public class SoundMixer implements Runnable
+{
+   // Effects, in the order of EFFECT_FILES
+   public static final int GOOD_COLLISION = 0;
+   public static final int BAD_COLLISION = 1;
+   public static final int WIN_ROUND = 2;
+   public static final int LOSE_ROUND = 3;
+
+   private static final String[] EFFECT_FILES = new String[]
+                                 {"Sound Effects/HitConfirm.wav",
+                                  "Sound Effects/Buzzer.wav",
+                                  "Sound Effects/WinRound.wav",
+                                  "Sound Effects/LoseRound.wav"};
+
+   // Every effect is stored and mixed in CD format
+   private static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2,
+                                                             true, false);
+   private static final int CHANNELS = 2;
+   private static final int PERIOD_FRAMES = 512; // About 12 ms
+   private static final int LINE_PERIODS = 4;
+   private static final int MAX_VOICES = 6;
+   private static final double NANOS_PER_MILLI = 1000000.0;
+
+   private final short[][] effects = new short[EFFECT_FILES.length][];
+   private final ConcurrentLinkedQueue<Command> commands =
+                                          new ConcurrentLinkedQueue<>();
+   private Thread thread = null;
+   private volatile boolean running = false;
+
+   // Voices, only touched by the mixer thread; a free voice is at -1
+   private final int[] voiceEffects = new int[MAX_VOICES];
+   private final int[] voicePositions = new int[MAX_VOICES];
+   private final boolean[] startedThisPeriod =
+                           new boolean[EFFECT_FILES.length];
+
+   // Metrics, written by the mixer thread through record
+   private int played = 0;
+   private int merged = 0;
+   private int cut = 0;
+   private long totalLatency = 0;
+   private long maxLatency = 0;
+
+   /**
+    * Decodes every sound effect; an effect that cannot be loaded is
+    * reported and then stays silent. Nothing plays until start is called.
+    */
+   public SoundMixer()
+   {
+      for(int i = 0; i < effects.length; i++)
+         effects[i] = decode(EFFECT_FILES[i]);
+      Arrays.fill(voicePositions, -1);
+   }
+
+   /**
+    * Starts the mixer thread, once
+    */
+   public void start()
+   {
+      if(thread != null)
+         return;
+
+      thread = new Thread(this, "Sound mixer");
+      thread.setDaemon(true);
+      running = true;
+      thread.start();
+   }
+
+   /**
+    * Asks for a sound effect to be played from the start; returns right
+    * away
+    *
+    * @param effect The effect to play, such as GOOD_COLLISION
+    */
+   public void play(int effect)
+   {
+      if(running && effects[effect] != null)
+         commands.offer(new Command(effect, System.nanoTime()));
+   }
+
+   /**
+    * Stops the mixer thread, which lets the last period play out and then
+    * gives the line back to the audio system
+    */
+   public void close()
+   {
+      running = false;
+      if(thread == null)
+         return;
+      try
+      {
+         thread.join();
+      }
+      catch(InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Gets a summary of how quickly effects started playing, suitable for
+    * logging
+    *
+    * @return The number of effects played, merged, and cut off, and the
+    *         average and worst time between asking for an effect and it
+    *         being mixed
+    */
+   public synchronized String getReport()
+   {
+      double average = played == 0 ? 0 : totalLatency / NANOS_PER_MILLI /
+                                         played;
+      return String.format("Sound: %d played, %d merged, %d cut off, " +
+                           "latency %.2f ms average, %.2f ms worst",
+                           played, merged, cut, average,
+                           maxLatency / NANOS_PER_MILLI);
+   }
+
+   /**
+    * Mixes periods of sound into the line until the mixer is closed
+    */
+   @Override
+   public void run()
+   {
+      int[] mix = new int[PERIOD_FRAMES * CHANNELS];
+      byte[] period = new byte[mix.length * 2];
+      ByteBuffer out = ByteBuffer.wrap(period)
+                                 .order(ByteOrder.LITTLE_ENDIAN);
+
+      try(SourceDataLine line = AudioSystem.getSourceDataLine(FORMAT))
+      {
+         line.open(FORMAT, period.length * LINE_PERIODS);
+         line.start();
+
+         while(running)
+         {
+            startVoices();
+
+            Arrays.fill(mix, 0);
+            for(int i = 0; i < MAX_VOICES; i++)
+               if(voicePositions[i] >= 0)
+                  mixVoice(i, mix);
+
+            out.clear();
+            for(int sample : mix)
+               out.putShort((short) Math.max(Short.MIN_VALUE,
+                                    Math.min(Short.MAX_VALUE, sample)));
+            line.write(period, 0, period.length);
+         }
+
+         line.drain();
+      }
+      catch(Exception e)
+      {
+         System.out.println("Sound effects could not be played: " + e);
+      }
+      finally
+      {
+         running = false;
+         commands.clear();
+      }
+   }
+
+   /**
+    * Takes every command posted since the last period and starts a voice
+    * for each effect asked for
+    */
+   private void startVoices()
+   {
+      Arrays.fill(startedThisPeriod, false);
+      long now = System.nanoTime();
+
+      Command command;
+      while((command = commands.poll()) != null)
+      {
+         int effect = command.effect;
+         if(startedThisPeriod[effect])
+         {
+            record(now - command.requested, true, false);
+            continue;
+         }
+         startedThisPeriod[effect] = true;
+
+         // A free voice if there is one, else the one played the longest
+         int voice = 0;
+         for(int i = 0; i < MAX_VOICES; i++)
+            if(voicePositions[i] < 0 ||
+               voicePositions[voice] >= 0 &&
+               voicePositions[i] > voicePositions[voice])
+               voice = i;
+
+         record(now - command.requested, false,
+                voicePositions[voice] >= 0);
+         voiceEffects[voice] = effect;
+         voicePositions[voice] = 0;
+      }
+   }
+
+   /**
+    * Records the handling of a command in the metrics
+    *
+    * @param latency The time since the effect was asked for in nanoseconds
+    * @param duplicate True if the command was merged into another one
+    * @param cutOff True if starting the effect cut off another one
+    */
+   private synchronized void record(long latency, boolean duplicate,
+                                    boolean cutOff)
+   {
+      if(duplicate)
+         merged++;
+      else
+      {
+         played++;
+         totalLatency += latency;
+         maxLatency = Math.max(maxLatency, latency);
+         if(cutOff)
+            cut++;
+      }
+   }
+
+   /**
+    * Adds the next period of a voice to the mix, freeing the voice once
+    * its effect has played to the end
+    *
+    * @param voice The voice to mix
+    * @param mix The samples of the period being mixed
+    */
+   private void mixVoice(int voice, int[] mix)
+   {
+      short[] samples = effects[voiceEffects[voice]];
+      int position = voicePositions[voice];
+      int count = Math.min(mix.length, samples.length - position);
+
+      for(int i = 0; i < count; i++)
+         mix[i] += samples[position + i];
+
+      position += count;
+      voicePositions[voice] = position < samples.length ? position : -1;
+   }
+
+   /**
+    * Decodes a sound effect into samples in the format of the mixer
+    *
+    * @param name The asset name of the effect
+    * @return The interleaved samples, or null if it could not be decoded
+    */
+   private static short[] decode(String name)
+   {
+      try(AudioInputStream in = AudioSystem.getAudioInputStream(
+                                AssetBundle.open(name));
+          AudioInputStream pcm = AudioSystem.getAudioInputStream(FORMAT,
+                                                                 in))
+      {
+         byte[] bytes = pcm.readAllBytes();
+         short[] samples = new short[bytes.length / 2];
+         ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+                   .asShortBuffer().get(samples);
+         return samples;
+      }
+      catch(Exception e)
+      {
+         System.out.println("Could not load sound effect " + name + ": " +
+                            e);
+         return null;
+      }
+   }
+
+   /**
+    * A request from the game to play an effect
+    */
+   private static class Command
+   {
+      private final int effect;
+      private final long requested;
+
+      /**
+       * Creates a request to play an effect
+       *
+       * @param effect The effect to play
+       * @param requested When it was asked for, in nanoseconds
+       */
+      Command(int effect, long requested)
+      {
+         this.effect = effect;
+         this.requested = requested;
+      }
+   }
+}
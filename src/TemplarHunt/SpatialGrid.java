@@ -0,0 +1,371 @@
+package TemplarHunt;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over a square area used to find which figures might touch
+ * without testing every pair. Each entry is a box identified by a small
+ * non-negative id (such as the index of an enemy) and is linked into
+ * every cell it overlaps. Moving an entry only relinks it when it crosses
+ * into a different set of cells, so a figure creeping along a pixel at a
+ * time usually costs nothing more than storing its new position.
+ *
+ * Boxes outside of the area are kept in the nearest edge cells, so
+ * queries stay correct for figures that wander off the playfield.
+ *
+ * @author Devon Lee
+ */
+public class SpatialGrid
+{
+   private static final int NONE = -1;
+   private static final int INITIAL_CAPACITY = 16;
+
+   private final int origin;
+   private final int cellSize;
+   private final int cellsPerSide;
+   private final int[] cellHead;
+
+   // Per entry, indexed by id
+   private int[] xs, ys, widths, heights;
+   private int[] minCols, minRows, maxCols, maxRows;
+   private int[] ownerHead;
+   private int[] seenStamp;
+   private boolean[] present;
+
+   // Per link between an entry and a cell it overlaps
+   private int[] linkOwner, linkCell, linkPrev, linkNext, linkSibling;
+   private int linkCount = 0;
+   private int freeLink = NONE;
+
+   private int queryStamp = 0;
+   private int[] results = new int[INITIAL_CAPACITY];
+   private int resultCount = 0;
+
+   /**
+    * Creates an empty grid over the square from min to max on both axes
+    *
+    * @param min The lowest coordinate covered on each axis
+    * @param max The highest coordinate covered on each axis
+    * @param cellSize The width and height of each cell
+    */
+   public SpatialGrid(int min, int max, int cellSize)
+   {
+      origin = min;
+      this.cellSize = cellSize;
+      cellsPerSide = (max - min) / cellSize + 1;
+
+      cellHead = new int[cellsPerSide * cellsPerSide];
+      Arrays.fill(cellHead, NONE);
+
+      xs = new int[INITIAL_CAPACITY];
+      ys = new int[INITIAL_CAPACITY];
+      widths = new int[INITIAL_CAPACITY];
+      heights = new int[INITIAL_CAPACITY];
+      minCols = new int[INITIAL_CAPACITY];
+      minRows = new int[INITIAL_CAPACITY];
+      maxCols = new int[INITIAL_CAPACITY];
+      maxRows = new int[INITIAL_CAPACITY];
+      ownerHead = new int[INITIAL_CAPACITY];
+      seenStamp = new int[INITIAL_CAPACITY];
+      present = new boolean[INITIAL_CAPACITY];
+
+      linkOwner = new int[INITIAL_CAPACITY];
+      linkCell = new int[INITIAL_CAPACITY];
+      linkPrev = new int[INITIAL_CAPACITY];
+      linkNext = new int[INITIAL_CAPACITY];
+      linkSibling = new int[INITIAL_CAPACITY];
+   }
+
+
+   /**
+    * Adds a box to the grid, or moves it if the id is already present
+    *
+    * @param id The id of the entry
+    * @param x The x-coordinate of the box
+    * @param y The y-coordinate of the box
+    * @param width The width of the box
+    * @param height The height of the box
+    */
+   public void insert(int id, int x, int y, int width, int height)
+   {
+      if(id >= present.length)
+         growEntries(Math.max(id + 1, present.length * 2));
+
+      if(present[id])
+      {
+         update(id, x, y, width, height);
+         return;
+      }
+
+      present[id] = true;
+      ownerHead[id] = NONE;
+      place(id, x, y, width, height);
+      link(id);
+   }
+
+   /**
+    * Moves a box that is already in the grid, relinking it only if it now
+    * overlaps a different set of cells
+    *
+    * @param id The id of the entry
+    * @param x The new x-coordinate of the box
+    * @param y The new y-coordinate of the box
+    * @param width The new width of the box
+    * @param height The new height of the box
+    */
+   public void update(int id, int x, int y, int width, int height)
+   {
+      int minCol = minCols[id];
+      int minRow = minRows[id];
+      int maxCol = maxCols[id];
+      int maxRow = maxRows[id];
+
+      place(id, x, y, width, height);
+
+      if(minCol != minCols[id] || minRow != minRows[id] ||
+         maxCol != maxCols[id] || maxRow != maxRows[id])
+      {
+         unlink(id);
+         link(id);
+      }
+   }
+
+   /**
+    * Removes a box from the grid; does nothing if it is not present
+    *
+    * @param id The id of the entry
+    */
+   public void remove(int id)
+   {
+      if(id < present.length && present[id])
+      {
+         unlink(id);
+         present[id] = false;
+      }
+   }
+
+   /**
+    * Reports whether an entry is in the grid
+    *
+    * @param id The id of the entry
+    * @return True if the entry is in the grid, false otherwise
+    */
+   public boolean contains(int id)
+   {
+      return id < present.length && present[id];
+   }
+
+
+   /**
+    * Finds every entry whose box touches the given box, using the same
+    * inclusive test as FigureModel.collidedWith. The ids found are read
+    * back with getResult, in ascending order, until the next query.
+    *
+    * @param x The x-coordinate of the box
+    * @param y The y-coordinate of the box
+    * @param width The width of the box
+    * @param height The height of the box
+    * @return The number of entries found
+    */
+   public int query(int x, int y, int width, int height)
+   {
+      queryStamp++;
+      resultCount = 0;
+
+      int minCol = cellIndex(x);
+      int maxCol = cellIndex(x + width);
+      int minRow = cellIndex(y);
+      int maxRow = cellIndex(y + height);
+
+      for(int row = minRow; row <= maxRow; row++)
+         for(int col = minCol; col <= maxCol; col++)
+            for(int l = cellHead[row * cellsPerSide + col]; l != NONE;
+                l = linkNext[l])
+            {
+               int id = linkOwner[l];
+               if(seenStamp[id] != queryStamp)
+               {
+                  seenStamp[id] = queryStamp;
+                  if(xs[id] + widths[id] >= x && x + width >= xs[id] &&
+                     ys[id] + heights[id] >= y && y + height >= ys[id])
+                     addResult(id);
+               }
+            }
+
+      Arrays.sort(results, 0, resultCount);
+      return resultCount;
+   }
+
+   /**
+    * Finds every entry whose box contains the given point
+    *
+    * @param x The x-coordinate of the point
+    * @param y The y-coordinate of the point
+    * @return The number of entries found
+    */
+   public int queryPoint(int x, int y)
+   {
+      return query(x, y, 0, 0);
+   }
+
+   /**
+    * Gets one of the ids found by the last query
+    *
+    * @param index The index of the result, less than the count returned
+    *              by the query
+    * @return The id of the entry
+    */
+   public int getResult(int index)
+   {
+      return results[index];
+   }
+
+
+   /**
+    * Records the box of an entry along with the range of cells it covers
+    *
+    * @param id The id of the entry
+    * @param x The x-coordinate of the box
+    * @param y The y-coordinate of the box
+    * @param width The width of the box
+    * @param height The height of the box
+    */
+   private void place(int id, int x, int y, int width, int height)
+   {
+      xs[id] = x;
+      ys[id] = y;
+      widths[id] = width;
+      heights[id] = height;
+
+      minCols[id] = cellIndex(x);
+      maxCols[id] = cellIndex(x + width);
+      minRows[id] = cellIndex(y);
+      maxRows[id] = cellIndex(y + height);
+   }
+
+   /**
+    * Gets the row or column of the cell holding a coordinate, clamped to
+    * the edges of the grid
+    *
+    * @param coordinate The coordinate on either axis
+    * @return The index of the row or column
+    */
+   private int cellIndex(int coordinate)
+   {
+      int index = Math.floorDiv(coordinate - origin, cellSize);
+      if(index < 0)
+         return 0;
+      if(index >= cellsPerSide)
+         return cellsPerSide - 1;
+      return index;
+   }
+
+   /**
+    * Links an entry into every cell of its recorded range
+    *
+    * @param id The id of the entry
+    */
+   private void link(int id)
+   {
+      for(int row = minRows[id]; row <= maxRows[id]; row++)
+         for(int col = minCols[id]; col <= maxCols[id]; col++)
+         {
+            int cell = row * cellsPerSide + col;
+            int l = newLink();
+
+            linkOwner[l] = id;
+            linkCell[l] = cell;
+            linkPrev[l] = NONE;
+            linkNext[l] = cellHead[cell];
+            if(cellHead[cell] != NONE)
+               linkPrev[cellHead[cell]] = l;
+            cellHead[cell] = l;
+
+            linkSibling[l] = ownerHead[id];
+            ownerHead[id] = l;
+         }
+   }
+
+   /**
+    * Unlinks an entry from every cell it is in
+    *
+    * @param id The id of the entry
+    */
+   private void unlink(int id)
+   {
+      int l = ownerHead[id];
+      while(l != NONE)
+      {
+         if(linkPrev[l] != NONE)
+            linkNext[linkPrev[l]] = linkNext[l];
+         else
+            cellHead[linkCell[l]] = linkNext[l];
+         if(linkNext[l] != NONE)
+            linkPrev[linkNext[l]] = linkPrev[l];
+
+         int sibling = linkSibling[l];
+         linkSibling[l] = freeLink;
+         freeLink = l;
+         l = sibling;
+      }
+      ownerHead[id] = NONE;
+   }
+
+   /**
+    * Takes a link from the free list, or makes a new one
+    *
+    * @return The index of an unused link
+    */
+   private int newLink()
+   {
+      if(freeLink != NONE)
+      {
+         int l = freeLink;
+         freeLink = linkSibling[l];
+         return l;
+      }
+
+      if(linkCount == linkOwner.length)
+      {
+         int capacity = linkCount * 2;
+         linkOwner = Arrays.copyOf(linkOwner, capacity);
+         linkCell = Arrays.copyOf(linkCell, capacity);
+         linkPrev = Arrays.copyOf(linkPrev, capacity);
+         linkNext = Arrays.copyOf(linkNext, capacity);
+         linkSibling = Arrays.copyOf(linkSibling, capacity);
+      }
+      return linkCount++;
+   }
+
+   /**
+    * Adds an id to the results of the current query
+    *
+    * @param id The id found
+    */
+   private void addResult(int id)
+   {
+      if(resultCount == results.length)
+         results = Arrays.copyOf(results, resultCount * 2);
+      results[resultCount++] = id;
+   }
+
+   /**
+    * Grows the per-entry arrays so that ids below the capacity fit
+    *
+    * @param capacity The new number of ids the grid can hold
+    */
+   private void growEntries(int capacity)
+   {
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      widths = Arrays.copyOf(widths, capacity);
+      heights = Arrays.copyOf(heights, capacity);
+      minCols = Arrays.copyOf(minCols, capacity);
+      minRows = Arrays.copyOf(minRows, capacity);
+      maxCols = Arrays.copyOf(maxCols, capacity);
+      maxRows = Arrays.copyOf(maxRows, capacity);
+      ownerHead = Arrays.copyOf(ownerHead, capacity);
+      seenStamp = Arrays.copyOf(seenStamp, capacity);
+      present = Arrays.copyOf(present, capacity);
+   }
+}
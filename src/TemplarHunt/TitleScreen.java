@@ -14,18 +14,20 @@ import javafx.scene.paint.Color;
 public class TitleScreen extends MenuScreen
 {
    private static final double BACKGROUND_OPACITY = 1.0;
-   private static final int NUM_BUTTONS = 5;
+   private static final int NUM_BUTTONS = 6;
    private static final Color[] BUTTON_COLORS = new Color[]
                                                {QUIT_BUTTON_COLOR,
                                                 Color.GOLD,
                                                 Color.LIGHTSKYBLUE,
                                                 Color.BISQUE,
+                                                Color.SANDYBROWN,
                                                 Color.MEDIUMSEAGREEN};
    private static final String[] BUTTON_TEXT = new String[]
                                 {QUIT_BUTTON_TEXT,
                                  "Press \"H\" for High Scores",
                                  "Press \"C\" for Controls",
                                  "Press \"I\" for Instructions",
+                                 "Press \"E\" for Endless Mode",
                                  "Press \"P\" to Play"};
 
    private final InstrScreen instrScreen;
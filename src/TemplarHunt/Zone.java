@@ -5,64 +5,44 @@ import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 
-import static TemplarHunt.GUI.STAGE_SIZE;
+import static TemplarHunt.ZoneModel.ZONE_SIZE;
 
 /**
- * This class defines movement and draw methods for the PFig class and
- * serves as a slowly-moving background for the game. Different instances
- * of this class can look and behave differently for added complexity.
+ * This class draws a ZoneModel, which serves as a slowly-moving
+ * background for the game. Hay and cobble zones use different images. The
+ * shapes of the zone are created once and the whole figure is moved.
  *
  * @author Devon Lee and Nathan Laures
  */
 public class Zone extends PFigure
 {
-   public static final int ZONE_SIZE = STAGE_SIZE / 3;
-   private static final int MOVEMENT_LENGTH = ZONE_SIZE / 2;
-
-   private static int numZones;
-   private static int moveCounterIndex = 1;
-   private static boolean moveOppositeX = false;
-
-   private final int roundID;
+   private final ZoneModel state;
    private final ImageView pic;
-   private int xVel;
-   private int yVel;
-   private int moveCounter;
-   private boolean hayZone = false;
 
    /**
-    * Parameterized constructor for background zones. Color is chosen based
-    * upon an alternating static variable
+    * Parameterized constructor for background zones
     *
     * Hay file obtained from barlowflowerfarm.com
     * Cobblestone file obtained from freestocktextures.com
     *
-    * @param startX The starting x-coordinate of the zone
-    * @param startY The starting y-coordinate of the zone
-    * @param moveOppositeY Tells the zone to move opposite of the standard
-    *                      direction by default
-    * @param hayZone Denotes which image the zone will display and how it
-    *                will affect the player points-wise
-    * @param roundID The number of the round, used to determine movement
+    * @param state The simulation state of the zone
     * @param pane The pane on which the object lies
     */
-   public Zone(int startX, int startY, boolean moveOppositeY,
-               boolean hayZone, int roundID, Pane pane)
+   public Zone(ZoneModel state, Pane pane)
    {
-      super(startX, startY, ZONE_SIZE, ZONE_SIZE, pane);
-
-      this.roundID = roundID;
-      moveCounter = 0;
+      super(state, pane);
 
-      numZones++;
+      this.state = state;
 
       ImageView temp;
       try
       {
-         if(hayZone)
-            temp = new ImageView("file:Hay.png");
+         if(state.isHayZone())
+            temp = new ImageView(ScaledAssets.get("Hay.png", ZONE_SIZE,
+                                                  ZONE_SIZE, 0.6));
          else
-            temp = new ImageView("file:Cobble.jpg");
+            temp = new ImageView(ScaledAssets.get("Cobble.jpg", ZONE_SIZE,
+                                                  ZONE_SIZE, 0.6));
       }
       catch(Exception e)
       {
@@ -71,14 +51,16 @@ public class Zone extends PFigure
       }
       pic = temp;
 
-      xVel = 1;
-      yVel = 1;
-      if(moveOppositeY)
-         yVel = -yVel;
-      if(hayZone)
-         this.hayZone = true;
-      if(numZones >= 4 && numZones <= 6)
-         xVel = -xVel;
+      // The image comes already blended over white, so the white
+      // background only shows if it is missing
+      if(pic != null && pic.getImage() != null)
+         getChildren().add(pic);
+      else
+      {
+         Rectangle background = new Rectangle(0, 0, ZONE_SIZE, ZONE_SIZE);
+         background.setFill(Color.WHITE);
+         getChildren().add(background);
+      }
 
       draw();
    }
@@ -91,103 +73,19 @@ public class Zone extends PFigure
     */
    public boolean isHayZone()
    {
-      return hayZone;
-   }
-
-   /**
-    * Cycle the background squares around; it has different algorithms for
-    * different rounds of the game
-    */
-   public void move()
-   {
-      if(roundID == 2 || (roundID >= 4 && moveOppositeX))
-      {
-         x += xVel;
-
-         if(x >= STAGE_SIZE)
-            x = -(int) ZONE_SIZE;
-         else if(x <= -ZONE_SIZE)
-            x = STAGE_SIZE;
-      }
-      if(roundID == 3 || (roundID >= 4 && !moveOppositeX))
-      {
-         y += yVel;
-
-         if(y >= STAGE_SIZE)
-            y = -(int) ZONE_SIZE;
-         else if(y <= -ZONE_SIZE)
-            y = STAGE_SIZE;
-      }
-      if(roundID == 4)
-      {
-         moveCounter++;
-         if(moveCounter >= MOVEMENT_LENGTH)
-         {
-            moveCounter = 0;
-            moveOppositeX = !moveOppositeX;
-         }
-      }
-      if(roundID == 5)
-      {
-         moveCounter++;
-         if((moveCounter * MOVEMENT_LENGTH) % moveCounterIndex == 0)
-         {
-            moveCounterIndex++;
-            moveOppositeX = !moveOppositeX;
-         }
-      }
-      if(roundID == 6)
-      {
-         moveCounter++;
-         if((moveCounter / MOVEMENT_LENGTH) % 2 == 0)
-            moveOppositeX = !moveOppositeX;
-      }
-      if(roundID == 7)
-      {
-         moveCounter++;
-         if((moveCounter / MOVEMENT_LENGTH) % 2 == 0)
-         {
-            moveOppositeX = !moveOppositeX;
-            yVel = -yVel;
-         }
-      }
-
+      return state.isHayZone();
    }
 
    /**
-    * Draws the zone with one of two different images depending on the
-    * hayZone parameter set by the constructor.
+    * Moves the zone, drawn with one of two different images depending on
+    * the type of zone in the model, to the current position of the model
     */
    public void draw()
    {
-      getChildren().clear();
-
-      Rectangle background = new Rectangle(x, y, ZONE_SIZE, ZONE_SIZE);
-      background.setFill(Color.WHITE);
-      background.toBack();
-      getChildren().add(background);
+      setTranslateX(renderX());
+      setTranslateY(renderY());
 
       if(pic != null)
-      {
-         pic.setX(x);
-         pic.setY(y);
-         pic.setFitHeight(ZONE_SIZE);
-         pic.setFitWidth(ZONE_SIZE);
-         pic.setOpacity(0.6);
-         pic.toFront();
-         getChildren().add(pic);
-
          pane.setVisible(true);
-      }
-   }
-
-   /**
-    * Resets the number of zones and the move counter from
-    * any previous round/game.
-    */
-   public static void resetNumZones()
-   {
-      numZones = 0;
-      moveCounterIndex = 1;
    }
 }
@@ -0,0 +1,208 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+import static TemplarHunt.GameWorld.STAGE_SIZE;
+
+/**
+ * Simulation state of a background zone. Zones cycle slowly around the
+ * playfield using a different movement pattern for each round, and each
+ * one is either a hay (bad) zone or a cobble (good) zone.
+ *
+ * @author Devon Lee and Nathan Laures
+ */
+public class ZoneModel extends FigureModel
+{
+   public static final int ZONE_SIZE = STAGE_SIZE / 3;
+   private static final int MOVEMENT_LENGTH = ZONE_SIZE / 2;
+
+   private final int roundID;
+   private final ZonePattern pattern;
+   private final boolean hayZone;
+   private int xVel;
+   private int yVel;
+   private int moveCounter;
+
+   /**
+    * Parameterized constructor for background zones
+    *
+    * @param startX The starting x-coordinate of the zone
+    * @param startY The starting y-coordinate of the zone
+    * @param moveOppositeY Tells the zone to move opposite of the standard
+    *                      direction by default
+    * @param hayZone Denotes how the zone will affect the player
+    *                points-wise
+    * @param roundID The number of the round, used to determine movement
+    * @param zoneNumber The place of the zone among the zones of the round,
+    *                   starting at 1; the middle row moves the other way
+    * @param pattern The movement pattern shared by the zones of the round
+    */
+   public ZoneModel(int startX, int startY, boolean moveOppositeY,
+                    boolean hayZone, int roundID, int zoneNumber,
+                    ZonePattern pattern)
+   {
+      super(startX, startY, ZONE_SIZE, ZONE_SIZE);
+
+      this.roundID = roundID;
+      this.hayZone = hayZone;
+      this.pattern = pattern;
+      moveCounter = 0;
+
+      xVel = 1;
+      yVel = 1;
+      if(moveOppositeY)
+         yVel = -yVel;
+      if(zoneNumber >= 4 && zoneNumber <= 6)
+         xVel = -xVel;
+   }
+
+   /**
+    * Reports as to whether the zone in question is a hay zone, as opposed
+    * to a cobble zone
+    *
+    * @return True if the zone is a hay (bad) zone, false otherwise
+    */
+   public boolean isHayZone()
+   {
+      return hayZone;
+   }
+
+   /**
+    * Gets the movement pattern the zone shares with the other zones of
+    * its round
+    *
+    * @return The pattern of the zones
+    */
+   public ZonePattern getPattern()
+   {
+      return pattern;
+   }
+
+   /**
+    * Writes the position, heading and movement counter of the zone to a
+    * snapshot; the pattern it shares is saved on its own
+    *
+    * @param out The snapshot being written
+    */
+   @Override
+   public void save(CompactBuffer out)
+   {
+      super.save(out);
+      out.writeSigned(xVel);
+      out.writeSigned(yVel);
+      out.writeVarint(moveCounter);
+   }
+
+   /**
+    * Puts the zone back as it was in a snapshot
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   @Override
+   public void restore(CompactBuffer in) throws IOException
+   {
+      super.restore(in);
+      xVel = (int) in.readSigned();
+      yVel = (int) in.readSigned();
+      moveCounter = (int) in.readVarint();
+   }
+
+   /**
+    * Writes everything that decides how the zone moves from now on: its
+    * position, its heading, the axis of its pattern, and its counters cut
+    * down to the part its round reads. Zones of a round that write the
+    * same phase move alike from then on, which is how Predictor finds
+    * where the movement of a round starts repeating.
+    *
+    * @param out The buffer being written
+    */
+   public void savePhase(CompactBuffer out)
+   {
+      out.writeSigned(x);
+      out.writeSigned(y);
+      out.writeSigned(xVel);
+      out.writeSigned(yVel);
+      out.writeBoolean(pattern.isMovingX());
+      if(roundID == 4)
+         out.writeVarint(moveCounter);
+      if(roundID == 5)
+      {
+         // Once the counter index runs one ahead of a counter past
+         // MOVEMENT_LENGTH, only the first zone to move switches the axis,
+         // every tick, for good (until the product in move overflows,
+         // some 15 million ticks in); until then both counters matter
+         boolean settled = moveCounter + 2 > MOVEMENT_LENGTH &&
+                           pattern.getCounterIndex() == moveCounter + 1;
+         out.writeBoolean(settled);
+         if(!settled)
+         {
+            out.writeVarint(moveCounter);
+            out.writeVarint(pattern.getCounterIndex());
+         }
+      }
+      if(roundID >= 6)
+         out.writeVarint(moveCounter % (2 * MOVEMENT_LENGTH));
+   }
+
+   /**
+    * Cycle the background squares around; it has different algorithms for
+    * different rounds of the game
+    */
+   public void move()
+   {
+      if(roundID == 2 || (roundID >= 4 && pattern.isMovingX()))
+      {
+         x += xVel;
+
+         if(x >= STAGE_SIZE)
+            x = -(int) ZONE_SIZE;
+         else if(x <= -ZONE_SIZE)
+            x = STAGE_SIZE;
+      }
+      if(roundID == 3 || (roundID >= 4 && !pattern.isMovingX()))
+      {
+         y += yVel;
+
+         if(y >= STAGE_SIZE)
+            y = -(int) ZONE_SIZE;
+         else if(y <= -ZONE_SIZE)
+            y = STAGE_SIZE;
+      }
+      if(roundID == 4)
+      {
+         moveCounter++;
+         if(moveCounter >= MOVEMENT_LENGTH)
+         {
+            moveCounter = 0;
+            pattern.switchAxis();
+         }
+      }
+      if(roundID == 5)
+      {
+         moveCounter++;
+         if((moveCounter * MOVEMENT_LENGTH) % pattern.getCounterIndex() ==
+            0)
+         {
+            pattern.nextCounterIndex();
+            pattern.switchAxis();
+         }
+      }
+      if(roundID == 6)
+      {
+         moveCounter++;
+         if((moveCounter / MOVEMENT_LENGTH) % 2 == 0)
+            pattern.switchAxis();
+      }
+      if(roundID == 7)
+      {
+         moveCounter++;
+         if((moveCounter / MOVEMENT_LENGTH) % 2 == 0)
+         {
+            pattern.switchAxis();
+            yVel = -yVel;
+         }
+      }
+
+   }
+}
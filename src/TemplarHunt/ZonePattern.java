@@ -0,0 +1,126 @@
+package TemplarHunt;
+
+import java.io.IOException;
+
+/**
+ * The movement pattern shared by all of the zones of a round. In the later
+ * rounds the zones switch together between moving across and moving up and
+ * down, so each round keeps one pattern that all of its zones read and
+ * change as they move.
+ *
+ * The axis carries over from one round to the next, as it always has: the
+ * zones of a round start out on whichever axis the last round left them,
+ * so a game keeps one pattern in its session for all of its rounds. Only
+ * the counter starts over each round.
+ *
+ * @author Devon Lee
+ */
+public class ZonePattern
+{
+   private int moveCounterIndex = 1;
+   private boolean moveOppositeX;
+   private boolean startedMovingX;
+
+   /**
+    * Creates a pattern for the first round of a game, whose zones start
+    * out moving up and down
+    */
+   public ZonePattern()
+   {
+      this(false);
+   }
+
+   /**
+    * Creates a pattern whose zones start out on a given axis
+    *
+    * @param movingX True if the zones start out moving across
+    */
+   public ZonePattern(boolean movingX)
+   {
+      moveOppositeX = movingX;
+      startedMovingX = movingX;
+   }
+
+   /**
+    * Starts the pattern over for a new round, on the axis the last round
+    * left it on
+    */
+   public void startRound()
+   {
+      moveCounterIndex = 1;
+      startedMovingX = moveOppositeX;
+   }
+
+   /**
+    * Reports which axis the zones of the current round started out on
+    *
+    * @return True if they started out moving across, false otherwise
+    */
+   public boolean startedMovingX()
+   {
+      return startedMovingX;
+   }
+
+   /**
+    * Reports whether the zones are currently moving across rather than up
+    * and down
+    *
+    * @return True if the zones move along the x-axis, false otherwise
+    */
+   public boolean isMovingX()
+   {
+      return moveOppositeX;
+   }
+
+   /**
+    * Switches the zones between moving across and moving up and down
+    */
+   public void switchAxis()
+   {
+      moveOppositeX = !moveOppositeX;
+   }
+
+   /**
+    * Gets the counter that spaces out the switches in round 5
+    *
+    * @return The current switch counter, starting at 1
+    */
+   public int getCounterIndex()
+   {
+      return moveCounterIndex;
+   }
+
+   /**
+    * Advances the counter that spaces out the switches in round 5
+    */
+   public void nextCounterIndex()
+   {
+      moveCounterIndex++;
+   }
+
+   /**
+    * Writes the counter and axis of the pattern, and the axis the round
+    * started on, to a snapshot
+    *
+    * @param out The snapshot being written
+    */
+   public void save(CompactBuffer out)
+   {
+      out.writeVarint(moveCounterIndex);
+      out.writeBoolean(moveOppositeX);
+      out.writeBoolean(startedMovingX);
+   }
+
+   /**
+    * Puts the pattern back as it was in a snapshot
+    *
+    * @param in The snapshot being read
+    * @throws IOException If the snapshot ends too soon
+    */
+   public void restore(CompactBuffer in) throws IOException
+   {
+      moveCounterIndex = (int) in.readVarint();
+      moveOppositeX = in.readBoolean();
+      startedMovingX = in.readBoolean();
+   }
+}